@@ -0,0 +1,29 @@
+package com.roomsensors.gateway.config;
+
+import com.roomsensors.gateway.filter.EdgeAuthenticationFilter;
+import com.roomsensors.gateway.service.EdgeTokenService;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Rate-limits authenticated requests per user (the token subject) and anonymous ones per client IP.
+     */
+    @Bean
+    public KeyResolver principalOrAddressKeyResolver() {
+        return exchange -> {
+            EdgeTokenService.EdgeIdentity identity = exchange.getAttribute(EdgeAuthenticationFilter.IDENTITY_ATTRIBUTE);
+            if (identity != null) {
+                return Mono.just("user:" + identity.username());
+            }
+            InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+            return address != null ? Mono.just("ip:" + address.getAddress().getHostAddress()) : Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.roomsensors.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes whose GET responses the gateway caches, and the write routes that invalidate them
+ * ({@code gateway.cache.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Memory budget for all cached bodies and headers
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Larger responses are passed through without being cached
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    // How long concurrent misses wait for the one backend call before going to the backend themselves
+    private Duration coalesceTimeout = Duration.ofSeconds(5);
+
+    private List<Route> routes = new ArrayList<>();
+
+    private List<Invalidation> invalidations = new ArrayList<>();
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public Duration getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public void setCoalesceTimeout(Duration coalesceTimeout) {
+        this.coalesceTimeout = coalesceTimeout;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public List<Invalidation> getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(List<Invalidation> invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    /**
+     * A cached GET path pattern. The route must answer every authenticated caller with the same response.
+     */
+    public static class Route {
+
+        private String path;
+        private Duration ttl = Duration.ofSeconds(30);
+        private String group;
+
+        // Getters and Setters
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public void setGroup(String group) {
+            this.group = group;
+        }
+    }
+
+    /**
+     * A write path pattern (POST, PUT, PATCH, DELETE) and the route groups it invalidates once it completes.
+     */
+    public static class Invalidation {
+
+        private String path;
+        private List<String> groups = new ArrayList<>();
+
+        // Getters and Setters
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public List<String> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(List<String> groups) {
+            this.groups = groups;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.roomsensors.gateway.filter;
+
+import com.roomsensors.gateway.service.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds load with 429 once a backend has as many requests in flight as its adaptive
+ * {@link AimdConcurrencyLimiter} allows. Latency is measured to the first response byte, so long streaming
+ * exports do not count as slow. Routes with {@code concurrency-limit: false} metadata, such as event streams
+ * that stay open indefinitely, are not limited. Runs just before routing, after rate limiting and the response
+ * cache.
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    private static final byte[] REJECTED_BODY =
+        "{\"error\":\"Service is overloaded, retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gateway.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.concurrency.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${gateway.concurrency.min-limit:5}")
+    private int minLimit;
+
+    @Value("${gateway.concurrency.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${gateway.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${gateway.concurrency.latency-threshold:500ms}")
+    private Duration latencyThreshold;
+
+    @Value("${gateway.concurrency.retry-after:1s}")
+    private Duration retryAfter;
+
+    private final ConcurrentMap<String, AimdConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!enabled || route == null || "false".equals(String.valueOf(route.getMetadata().get("concurrency-limit")))) {
+            return chain.filter(exchange);
+        }
+        String backend = route.getUri().getHost() != null ? route.getUri().getHost() : route.getId();
+        AimdConcurrencyLimiter limiter = limiters.computeIfAbsent(backend, this::createLimiter);
+        if (!limiter.tryAcquire()) {
+            Counter.builder("gateway.concurrency.rejected")
+                .tag("backend", backend)
+                .register(meterRegistry)
+                .increment();
+            return rejected(exchange.getResponse());
+        }
+
+        long started = System.nanoTime();
+        AtomicLong latency = new AtomicLong(-1);
+        exchange.getResponse().beforeCommit(() -> {
+            latency.compareAndSet(-1, System.nanoTime() - started);
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> {
+            long elapsed = latency.get() >= 0 ? latency.get() : System.nanoTime() - started;
+            limiter.release(elapsed, signal == SignalType.ON_ERROR || isOverloaded(exchange.getResponse().getStatusCode()));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER - 1;
+    }
+
+    private AimdConcurrencyLimiter createLimiter(String backend) {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio,
+            latencyThreshold.toNanos());
+        Gauge.builder("gateway.concurrency.limit", limiter, AimdConcurrencyLimiter::getLimit)
+            .tag("backend", backend)
+            .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, AimdConcurrencyLimiter::getInFlight)
+            .tag("backend", backend)
+            .register(meterRegistry);
+        return limiter;
+    }
+
+    // Application errors (500, 4xx) say nothing about capacity
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    private Mono<Void> rejected(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(REJECTED_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+}
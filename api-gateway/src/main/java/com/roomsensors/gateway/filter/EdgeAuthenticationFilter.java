@@ -0,0 +1,127 @@
+package com.roomsensors.gateway.filter;
+
+import com.roomsensors.gateway.service.EdgeTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Authenticates requests once at the edge. Requests to protected paths without a valid bearer token are
+ * answered with 401 here and never reach a service instance. Accepted requests carry a signed
+ * {@code X-Gateway-Identity} header, which {@code sensor-service} can trust instead of verifying the token
+ * again. A client-supplied identity header is always removed.
+ */
+@Component
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+    // Exchange attribute holding the EdgeIdentity of an accepted request
+    public static final String IDENTITY_ATTRIBUTE = EdgeAuthenticationFilter.class.getName() + ".identity";
+
+    private static final byte[] UNAUTHORIZED_BODY =
+        "{\"error\":\"Missing, invalid or expired token\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private EdgeTokenService edgeTokenService;
+
+    @Value("${gateway.auth.enabled:true}")
+    private boolean enabled;
+
+    private final List<PathPattern> publicPatterns;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter anonymous;
+
+    public EdgeAuthenticationFilter(MeterRegistry meterRegistry,
+                                    @Value("${gateway.auth.public-paths}") List<String> publicPaths) {
+        this.publicPatterns = publicPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.accepted = authRequests(meterRegistry, "accepted");
+        this.rejected = authRequests(meterRegistry, "rejected");
+        this.anonymous = authRequests(meterRegistry, "public");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean spoofed = request.getHeaders().containsKey(EdgeTokenService.IDENTITY_HEADER);
+        if (!enabled) {
+            return chain.filter(spoofed ? withIdentity(exchange, null) : exchange);
+        }
+
+        if (isPublic(request)) {
+            anonymous.increment();
+            return chain.filter(spoofed ? withIdentity(exchange, null) : exchange);
+        }
+
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        EdgeTokenService.EdgeIdentity identity = authHeader != null && authHeader.startsWith("Bearer ")
+            ? edgeTokenService.verify(authHeader.substring(7))
+            : null;
+        if (identity == null) {
+            rejected.increment();
+            return unauthorized(exchange.getResponse());
+        }
+        accepted.increment();
+        exchange.getAttributes().put(IDENTITY_ATTRIBUTE, identity);
+        return chain.filter(withIdentity(exchange, identity.header()));
+    }
+
+    @Override
+    public int getOrder() {
+        // Before load balancing and routing, so rejected requests cost no downstream work
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        for (PathPattern pattern : publicPatterns) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, String identityHeader) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                headers.remove(EdgeTokenService.IDENTITY_HEADER);
+                if (identityHeader != null) {
+                    headers.set(EdgeTokenService.IDENTITY_HEADER, identityHeader);
+                }
+            })
+            .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(UNAUTHORIZED_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static Counter authRequests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.auth.requests")
+            .description("Requests seen by the edge authentication filter")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,269 @@
+package com.roomsensors.gateway.filter;
+
+import com.roomsensors.gateway.config.ResponseCacheProperties;
+import com.roomsensors.gateway.service.ResponseCache;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Answers GET requests on the configured routes from {@link ResponseCache}. Concurrent misses on the same
+ * key share one backend call. Responses carry an ETag, and a matching {@code If-None-Match} is answered with
+ * 304 without a body. Writes on the configured invalidation paths evict their route groups once they
+ * complete. Runs after {@link EdgeAuthenticationFilter}, and only requests it authenticated are cached.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Hop-by-hop and per-response headers that are not replayed from the cache
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.TRANSFER_ENCODING,
+        HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.SET_COOKIE, CACHE_STATUS_HEADER);
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    private final ResponseCacheProperties properties;
+    private final List<CachedRoute> routes = new ArrayList<>();
+    private final List<InvalidationRoute> invalidations = new ArrayList<>();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties) {
+        this.properties = properties;
+        for (ResponseCacheProperties.Route route : properties.getRoutes()) {
+            routes.add(new CachedRoute(route.getPath(), PathPatternParser.defaultInstance.parse(route.getPath()),
+                route.getGroup() != null ? route.getGroup() : route.getPath(), route.getTtl().toNanos()));
+        }
+        for (ResponseCacheProperties.Invalidation invalidation : properties.getInvalidations()) {
+            invalidations.add(new InvalidationRoute(PathPatternParser.defaultInstance.parse(invalidation.getPath()),
+                invalidation.getGroups()));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+
+        if (HttpMethod.GET.equals(method)) {
+            CachedRoute route = findRoute(request);
+            if (route == null || exchange.getAttribute(EdgeAuthenticationFilter.IDENTITY_ATTRIBUTE) == null) {
+                return chain.filter(exchange);
+            }
+            return cached(exchange, chain, route);
+        }
+
+        if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method)
+                || HttpMethod.PATCH.equals(method) || HttpMethod.DELETE.equals(method)) {
+            Set<String> groups = invalidatedGroups(request);
+            if (!groups.isEmpty()) {
+                // Invalidated once the write has completed, so no response fetched before it survives
+                return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(groups));
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    private Mono<Void> cached(ServerWebExchange exchange, GatewayFilterChain chain, CachedRoute route) {
+        ServerHttpRequest request = exchange.getRequest();
+        String key = key(request);
+        // "Cache-Control: no-cache" from the client skips the lookup and refreshes the entry
+        boolean refresh = request.getHeaders().getCacheControl() != null
+            && request.getHeaders().getCacheControl().contains("no-cache");
+
+        if (!refresh) {
+            ResponseCache.CachedResponse hit = responseCache.get(key);
+            if (hit != null) {
+                responseCache.recordHit(route.path(), "hit", hit);
+                return serve(exchange, hit, "HIT");
+            }
+        }
+
+        Sinks.One<ResponseCache.CachedResponse> sink = Sinks.one();
+        Sinks.One<ResponseCache.CachedResponse> leader = responseCache.joinInFlight(key, sink);
+        if (leader != null) {
+            if (refresh) {
+                responseCache.record(route.path(), "bypass");
+                return chain.filter(exchange);
+            }
+            return leader.asMono()
+                .timeout(properties.getCoalesceTimeout(), Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(response -> {
+                    if (response.isEmpty()) {
+                        // The shared call failed, was not cacheable or took too long
+                        responseCache.record(route.path(), "miss");
+                        return chain.filter(exchange);
+                    }
+                    responseCache.recordHit(route.path(), "coalesced", response.get());
+                    return serve(exchange, response.get(), "HIT");
+                });
+        }
+
+        responseCache.record(route.path(), "miss");
+        long generation = responseCache.generation(route.group());
+        CachingResponse response = new CachingResponse(exchange, route, key, generation, sink);
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> responseCache.complete(key, sink));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(Math.max(0, (System.currentTimeMillis() - cached.createdAtMillis()) / 1000)));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        if (matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            return notModified(response);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        return response.setComplete();
+    }
+
+    private CachedRoute findRoute(ServerHttpRequest request) {
+        for (CachedRoute route : routes) {
+            if (route.pattern().matches(request.getPath().pathWithinApplication())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private Set<String> invalidatedGroups(ServerHttpRequest request) {
+        Set<String> groups = new LinkedHashSet<>();
+        for (InvalidationRoute invalidation : invalidations) {
+            if (invalidation.pattern().matches(request.getPath().pathWithinApplication())) {
+                groups.addAll(invalidation.groups());
+            }
+        }
+        return groups;
+    }
+
+    private static String key(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return request.getPath().value() + (query != null ? "?" + query : "") + (accept != null ? "|" + accept : "");
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Buffers the backend's body, stores it when cacheable and hands it to the requests waiting on the key
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final CachedRoute route;
+        private final String key;
+        private final long generation;
+        private final Sinks.One<ResponseCache.CachedResponse> sink;
+        private final long startedNanos = System.nanoTime();
+
+        CachingResponse(ServerWebExchange exchange, CachedRoute route, String key, long generation,
+                        Sinks.One<ResponseCache.CachedResponse> sink) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.route = route;
+            this.key = key;
+            this.generation = generation;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode()) || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                HttpHeaders headers = getHeaders();
+                String etag = headers.getETag() != null ? headers.getETag() : etag(bytes);
+                headers.setETag(etag);
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+
+                if (bytes.length <= properties.getMaxEntrySize().toBytes()) {
+                    HttpHeaders stored = new HttpHeaders();
+                    stored.putAll(headers);
+                    UNCACHED_HEADERS.forEach(stored::remove);
+                    ResponseCache.CachedResponse cached = new ResponseCache.CachedResponse(route.group(),
+                        HttpHeaders.readOnlyHttpHeaders(stored), bytes, etag, System.nanoTime() - startedNanos,
+                        route.ttlNanos(), System.currentTimeMillis());
+                    if (responseCache.put(key, generation, cached)) {
+                        sink.tryEmitValue(cached);
+                    }
+                }
+
+                if (matchesIfNoneMatch(exchange.getRequest(), etag)) {
+                    return notModified(getDelegate());
+                }
+                return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+
+    private record CachedRoute(String path, PathPattern pattern, String group, long ttlNanos) {
+    }
+
+    private record InvalidationRoute(PathPattern pattern, List<String> groups) {
+    }
+}
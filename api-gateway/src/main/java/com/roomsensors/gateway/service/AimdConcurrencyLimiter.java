@@ -0,0 +1,59 @@
+package com.roomsensors.gateway.service;
+
+/**
+ * Adaptive limit on the requests in flight to one backend (additive increase, multiplicative decrease).
+ * The limit grows by one per fast response while at least half of it is in use, and shrinks by
+ * {@code backoffRatio} when a response is slower than {@code latencyThresholdNanos} or shows an overloaded
+ * backend. So it follows the concurrency the backend can serve at acceptable latency.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private int limit;
+    private int inFlight;
+    private long decreasedAtNanos;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                  long latencyThresholdNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.decreasedAtNanos = System.nanoTime() - latencyThresholdNanos;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        inFlight--;
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            // The slow responses of one overload episode arrive together, so they cut the limit only once
+            long now = System.nanoTime();
+            if (now - decreasedAtNanos >= latencyThresholdNanos) {
+                limit = Math.max(minLimit, (int) (limit * backoffRatio));
+                decreasedAtNanos = now;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
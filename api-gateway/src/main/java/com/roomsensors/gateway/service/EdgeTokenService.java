@@ -0,0 +1,130 @@
+package com.roomsensors.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Verifies bearer tokens at the edge with the same HS512 secret as {@code sensor-service}, and signs the
+ * identity header the gateway forwards in place of a second verification downstream.
+ */
+@Service
+public class EdgeTokenService {
+
+    public static final String IDENTITY_HEADER = "X-Gateway-Identity";
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${gateway.identity.secret:}")
+    private String identitySecret;
+
+    private JwtParser parser;
+    private SecretKeySpec identityKey;
+    private Cache<String, EdgeIdentity> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+            .build();
+        if (!identitySecret.isBlank()) {
+            identityKey = new SecretKeySpec(identitySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        }
+        // Each entry lives until its token expires, so a cached token is never accepted past its expiration
+        verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaximumSize)
+            .expireAfter(new Expiry<String, EdgeIdentity>() {
+                @Override
+                public long expireAfterCreate(String key, EdgeIdentity identity, long currentTime) {
+                    return Math.max(0, identity.expiresAtMillis() - System.currentTimeMillis()) * 1_000_000L;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, EdgeIdentity identity, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, EdgeIdentity identity, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Returns the token's identity together with its signed identity header, or {@code null} when the token
+     * is malformed, tampered with or expired.
+     */
+    public EdgeIdentity verify(String token) {
+        String key = hash(token);
+        EdgeIdentity identity = verifiedTokens.getIfPresent(key);
+        if (identity != null) {
+            return identity;
+        }
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        String role = claims.get("role", String.class);
+        long expiresAtMillis = claims.getExpiration().getTime();
+        identity = new EdgeIdentity(claims.getSubject(), role, expiresAtMillis,
+            identityHeader(claims.getSubject(), role, expiresAtMillis));
+        verifiedTokens.put(key, identity);
+        return identity;
+    }
+
+    // <base64url(username)>.<role>.<expiry epoch seconds>.<base64url(HMAC-SHA256 of the first three parts)>
+    private String identityHeader(String username, String role, long expiresAtMillis) {
+        if (identityKey == null) {
+            return null;
+        }
+        String payload = BASE64.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+            + "." + role + "." + expiresAtMillis / 1000;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(identityKey);
+            return payload + "." + BASE64.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record EdgeIdentity(String username, String role, long expiresAtMillis, String header) {
+    }
+}
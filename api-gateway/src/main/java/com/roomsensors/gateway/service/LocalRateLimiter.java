@@ -0,0 +1,134 @@
+package com.roomsensors.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * In-memory token-bucket {@link org.springframework.cloud.gateway.filter.ratelimit.RateLimiter} for the
+ * {@code RequestRateLimiter} route filter, configured per route with {@code local-rate-limiter.*} args.
+ * Buckets live in this gateway instance only, so with N gateway instances a client may get up to N times
+ * the configured rate.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limit.max-clients:100000}") long maxClients,
+                            @Value("${gateway.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        // An evicted idle bucket was full anyway, so dropping it changes nothing for its client
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxClients)
+            .expireAfterAccess(idleTimeout)
+            .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        Bucket bucket = buckets.get(routeId + ":" + id, key -> new Bucket(config.getBurstCapacity()));
+        long retryAfterNanos = bucket.tryConsume(config);
+        boolean allowed = retryAfterNanos == 0;
+
+        Counter.builder("gateway.ratelimit.requests")
+            .tag("route", routeId)
+            .tag("outcome", allowed ? "allowed" : "rejected")
+            .register(meterRegistry)
+            .increment();
+
+        Map<String, String> headers = allowed
+            ? Map.of(
+                "X-RateLimit-Remaining", Long.toString(bucket.remaining()),
+                "X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()),
+                "X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()))
+            : Map.of(
+                "X-RateLimit-Remaining", "0",
+                "X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()),
+                "X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()),
+                "Retry-After", Long.toString(Math.max(1, (long) Math.ceil(retryAfterNanos / NANOS_PER_SECOND))));
+        return Mono.just(new Response(allowed, headers));
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAtNanos = System.nanoTime();
+
+        Bucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        // Returns 0 when the tokens were taken, or the nanoseconds until enough tokens are available
+        synchronized long tryConsume(Config config) {
+            long now = System.nanoTime();
+            tokens = Math.min(config.getBurstCapacity(),
+                tokens + (now - refilledAtNanos) / NANOS_PER_SECOND * config.getReplenishRate());
+            refilledAtNanos = now;
+            if (tokens >= config.getRequestedTokens()) {
+                tokens -= config.getRequestedTokens();
+                return 0;
+            }
+            return Math.max(1, (long) ((config.getRequestedTokens() - tokens) / config.getReplenishRate() * NANOS_PER_SECOND));
+        }
+
+        synchronized long remaining() {
+            return (long) tokens;
+        }
+    }
+
+    public static class Config {
+
+        // Tokens added per second, i.e. the sustained request rate per client
+        private int replenishRate = 50;
+
+        // Bucket size, i.e. the burst a client may send at once
+        private int burstCapacity = 100;
+
+        // Tokens each request costs
+        private int requestedTokens = 1;
+
+        // Getters and Setters
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.roomsensors.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.roomsensors.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Sinks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded store of cached GET responses with per-entry TTLs, the in-flight backend calls that concurrent
+ * misses wait on, and per-group generations. A write bumps its groups' generations, so a response that was
+ * already being fetched when the write completed is not stored afterwards.
+ */
+@Service
+public class ResponseCache {
+
+    // Rough per-entry overhead of the key, entry object and header map
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Cache<String, CachedResponse> responses;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Timer backendLatency;
+    private final Counter latencySaved;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.responses = Caffeine.newBuilder()
+            .maximumWeight(properties.getMaxSize().toBytes())
+            .weigher((String key, CachedResponse response) -> response.weight(key))
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                    return response.ttlNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return response.ttlNanos();
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.responses");
+        Gauge.builder("gateway.cache.weight", responses,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+            .description("Bytes held by cached responses")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.backendLatency = Timer.builder("gateway.cache.backend.latency")
+            .description("Backend latency of responses fetched to fill the cache")
+            .register(meterRegistry);
+        this.latencySaved = Counter.builder("gateway.cache.latency.saved")
+            .description("Backend time avoided by answering from the cache")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public long generation(String group) {
+        return generations.computeIfAbsent(group, g -> new AtomicLong()).get();
+    }
+
+    /**
+     * Stores a response fetched while {@code group} was at {@code generation}. Returns false when a write
+     * invalidated the group since, in which case the response is not cached.
+     */
+    public boolean put(String key, long generation, CachedResponse response) {
+        backendLatency.record(response.backendNanos(), TimeUnit.NANOSECONDS);
+        if (generation(response.group()) != generation) {
+            return false;
+        }
+        responses.put(key, response);
+        return true;
+    }
+
+    public void invalidate(Collection<String> groups) {
+        for (String group : groups) {
+            generations.computeIfAbsent(group, g -> new AtomicLong()).incrementAndGet();
+            Counter.builder("gateway.cache.invalidations")
+                .tag("group", group)
+                .register(meterRegistry)
+                .increment();
+        }
+        responses.asMap().values().removeIf(response -> groups.contains(response.group()));
+    }
+
+    /**
+     * Registers the caller as the one fetching {@code key}. Returns the sink of the call already in flight
+     * when there is one, or {@code null} when the caller must fetch and then {@link #complete} the key.
+     */
+    public Sinks.One<CachedResponse> joinInFlight(String key, Sinks.One<CachedResponse> sink) {
+        return inFlight.putIfAbsent(key, sink);
+    }
+
+    public void complete(String key, Sinks.One<CachedResponse> sink) {
+        inFlight.remove(key, sink);
+        sink.tryEmitEmpty();
+    }
+
+    public void recordHit(String route, String result, CachedResponse response) {
+        record(route, result);
+        latencySaved.increment(response.backendNanos() / 1e9);
+    }
+
+    public void record(String route, String result) {
+        Counter.builder("gateway.cache.requests")
+            .tag("route", route)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    public record CachedResponse(String group, HttpHeaders headers, byte[] body, String etag,
+                                 long backendNanos, long ttlNanos, long createdAtMillis) {
+
+        int weight(String key) {
+            int weight = ENTRY_OVERHEAD_BYTES + key.length() + body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += value.length();
+                }
+            }
+            return weight;
+        }
+    }
+}
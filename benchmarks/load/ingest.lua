@@ -0,0 +1,12 @@
+-- wrk script: POST one measurement per request, authenticated with the bearer token in $TOKEN
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+wrk.headers["Authorization"] = "Bearer " .. os.getenv("TOKEN")
+
+local sensor_ids = tonumber(os.getenv("SENSOR_IDS") or "1")
+
+request = function()
+    local body = string.format('{"sensorId":%d,"timestamp":"%s","temperature":%.2f,"humidity":%.2f}',
+        math.random(sensor_ids), os.date("!%Y-%m-%dT%H:%M:%S"), 15 + math.random() * 15, 30 + math.random() * 30)
+    return wrk.format(nil, "/api/measurements", nil, body)
+end
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Runs the ingest load at each client count against a running sensor-service and prints one result row per
+# run. Start the service once per mode (default and --spring.profiles.active=virtual-threads) and run this
+# with MODE set accordingly.
+set -euo pipefail
+
+: "${TOKEN:?TOKEN must hold a bearer token of a READ_WRITE user}"
+MODE=${MODE:-platform}
+URL=${URL:-http://localhost:8080}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-20s}
+CLIENTS=${CLIENTS:-"1000 5000 10000"}
+THREADS=${THREADS:-$(nproc)}
+SCRIPT="$(dirname "$0")/ingest.lua"
+
+export TOKEN
+wrk -t"$THREADS" -c200 -d"$WARMUP" -s "$SCRIPT" "$URL" > /dev/null
+
+echo "| Mode | Clients | Requests/s | p50 | p99 | Non-2xx | Socket errors |"
+echo "|------|---------|------------|-----|-----|---------|---------------|"
+for clients in $CLIENTS; do
+    out=$(wrk -t"$THREADS" -c"$clients" -d"$DURATION" --timeout 30s --latency -s "$SCRIPT" "$URL")
+    rps=$(awk '/Requests\/sec/ {print $2}' <<< "$out")
+    p50=$(awk '$1 == "50%" {print $2}' <<< "$out")
+    p99=$(awk '$1 == "99%" {print $2}' <<< "$out")
+    non2xx=$(awk '/Non-2xx/ {print $NF}' <<< "$out")
+    errors=$(awk '/Socket errors/ {for (i = 1; i <= NF; i++) if ($i ~ /^[0-9]+,?$/) n += $i; print n}' <<< "$out")
+    echo "| $MODE | $clients | $rps | $p50 | $p99 | ${non2xx:-0} | ${errors:-0} |"
+done
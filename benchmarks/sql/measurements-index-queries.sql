@@ -0,0 +1,47 @@
+-- Representative MeasurementRepository queries, included twice by measurements-index-postgresql.sql.
+-- Sensor 500 over one day (2,880 of its 50,000 readings).
+
+\set sensor_id 500
+\set range_start '''2024-01-10 00:00:00'''
+\set range_end '''2024-01-10 23:59:59'''
+
+\echo '--- aggregateBySensorIdAndTimestampBetween (average, rollup head/tail) ---'
+SELECT count(*), sum(temperature), min(temperature), max(temperature),
+       sum(humidity), min(humidity), max(humidity)
+FROM measurements
+WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*), sum(temperature), min(temperature), max(temperature),
+       sum(humidity), min(humidity), max(humidity)
+FROM measurements
+WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end;
+
+\echo '--- MeasurementRowReader.forEachRow (statistics, export) ---'
+SELECT count(*) FROM (
+    SELECT id, CAST(EXTRACT(EPOCH FROM timestamp) * 1000000 AS BIGINT), CAST(temperature * 100 AS INTEGER), CAST(humidity * 100 AS INTEGER)
+    FROM measurements
+    WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end
+    ORDER BY timestamp, id
+) AS rows;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, timestamp, temperature, humidity
+FROM measurements
+WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end
+ORDER BY timestamp, id;
+
+\echo '--- findPageBySensorIdAfter (keyset page of 100) ---'
+SELECT id, sensor_id, temperature, humidity, timestamp, created_at
+FROM measurements
+WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end
+  AND timestamp >= TIMESTAMP '2024-01-10 12:00:00'
+  AND (timestamp > TIMESTAMP '2024-01-10 12:00:00' OR id > 0)
+ORDER BY timestamp, id
+LIMIT 101;
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, sensor_id, temperature, humidity, timestamp, created_at
+FROM measurements
+WHERE sensor_id = :sensor_id AND timestamp BETWEEN :range_start AND :range_end
+  AND timestamp >= TIMESTAMP '2024-01-10 12:00:00'
+  AND (timestamp > TIMESTAMP '2024-01-10 12:00:00' OR id > 0)
+ORDER BY timestamp, id
+LIMIT 101;
@@ -0,0 +1,145 @@
+package com.roomsensors.benchmarks;
+
+import com.roomsensors.roomsensors.filter.JwtAuthenticationFilter;
+import com.roomsensors.roomsensors.service.GatewayIdentityService;
+import com.roomsensors.roomsensors.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtAuthenticationFilter}:
+ * <ul>
+ *   <li>{@code previousFilter}: the filter before tokens were verified once, with four HS512 parses that
+ *       each rebuild the key and parser</li>
+ *   <li>{@code filterWithoutCache}: a single parse with the prebuilt parser ({@code jwt.cache.maximum-size=0})</li>
+ *   <li>{@code filterWithCache}: a token already verified, answered from the cache</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET =
+        "MySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongForHS512AlgorithmToWorkProperlyAndSecurely";
+
+    // Clears the authentication so every invocation authenticates from scratch
+    private static final FilterChain CHAIN = (request, response) -> SecurityContextHolder.clearContext();
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtService cachedService = jwtService(10_000);
+        cachedFilter = filter(cachedService);
+        uncachedFilter = filter(jwtService(0));
+
+        token = cachedService.generateToken("admin", "READ_WRITE");
+        request = new MockHttpServletRequest("GET", "/api/sensors");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void previousFilter() {
+        String username = PreviousJwtService.extractUsername(token);
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (PreviousJwtService.validateToken(token, username)) {
+                String role = PreviousJwtService.extractRole(token);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    username, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void filterWithoutCache() throws Exception {
+        uncachedFilter.doFilter(request, response, CHAIN);
+    }
+
+    @Benchmark
+    public void filterWithCache() throws Exception {
+        cachedFilter.doFilter(request, response, CHAIN);
+    }
+
+    private static JwtService jwtService(long cacheMaximumSize) {
+        JwtService service = new JwtService();
+        DirectFieldAccessor fields = new DirectFieldAccessor(service);
+        fields.setPropertyValue("secret", SECRET);
+        fields.setPropertyValue("expiration", 86_400_000L);
+        fields.setPropertyValue("cacheMaximumSize", cacheMaximumSize);
+        service.init();
+        return service;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtService service) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        DirectFieldAccessor fields = new DirectFieldAccessor(filter);
+        fields.setPropertyValue("jwtService", service);
+        fields.setPropertyValue("gatewayIdentityService", new GatewayIdentityService());
+        fields.setPropertyValue("meterRegistry", new SimpleMeterRegistry());
+        filter.init();
+        return filter;
+    }
+
+    // The token parsing of JwtService before the key and parser were built once
+    private static final class PreviousJwtService {
+
+        static String extractUsername(String token) {
+            return extractClaim(token, Claims::getSubject);
+        }
+
+        static String extractRole(String token) {
+            return extractClaim(token, claims -> claims.get("role", String.class));
+        }
+
+        static Boolean validateToken(String token, String username) {
+            return extractUsername(token).equals(username)
+                && !extractClaim(token, Claims::getExpiration).before(new Date());
+        }
+
+        private static <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+            Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+            return claimsResolver.apply(claims);
+        }
+    }
+}
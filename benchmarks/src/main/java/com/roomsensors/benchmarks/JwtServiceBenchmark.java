@@ -0,0 +1,79 @@
+package com.roomsensors.benchmarks;
+
+import com.roomsensors.roomsensors.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.DirectFieldAccessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and checking tokens in {@link JwtService}:
+ * <ul>
+ *   <li>{@code generateToken}: signing a token at login</li>
+ *   <li>{@code verifyWithoutCache}: HS512 signature and expiration check ({@code jwt.cache.maximum-size=0})</li>
+ *   <li>{@code verifyWithCache}: a token already verified, answered from the cache by its SHA-256</li>
+ *   <li>{@code validateToken}: the claim-by-claim check, which parses the token twice</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET =
+        "MySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLongForHS512AlgorithmToWorkProperlyAndSecurely";
+
+    private JwtService cachedService;
+    private JwtService uncachedService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedService = jwtService(10_000);
+        uncachedService = jwtService(0);
+        token = cachedService.generateToken("admin", "READ_WRITE");
+        cachedService.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedService.generateToken("admin", "READ_WRITE");
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken verifyWithoutCache() {
+        return uncachedService.verify(token);
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken verifyWithCache() {
+        return cachedService.verify(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return uncachedService.validateToken(token, "admin");
+    }
+
+    private static JwtService jwtService(long cacheMaximumSize) {
+        JwtService service = new JwtService();
+        DirectFieldAccessor fields = new DirectFieldAccessor(service);
+        fields.setPropertyValue("secret", SECRET);
+        fields.setPropertyValue("expiration", 86_400_000L);
+        fields.setPropertyValue("cacheMaximumSize", cacheMaximumSize);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,94 @@
+package com.roomsensors.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.service.MeasurementFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode cost of one ingest batch of {@code batchSize} readings:
+ * <ul>
+ *   <li>{@code jsonDecode}: the JSON array accepted by {@code POST /api/measurements/batch}, read into
+ *       {@link MeasurementDTO}s with {@code BigDecimal} values and {@code LocalDateTime} timestamps</li>
+ *   <li>{@code binaryDecode}: the same readings as a {@link MeasurementFrame}, read into primitive columns</li>
+ * </ul>
+ * The payload size of both encodings is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasurementCodecBenchmark {
+
+    private static final TypeReference<List<MeasurementDTO>> DTO_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000"})
+    private int batchSize;
+
+    // Configured like Spring Boot's ObjectMapper, which writes ISO timestamps
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] sensorIds = new long[batchSize];
+        long[] epochMillis = new long[batchSize];
+        int[] temperatures = new int[batchSize];
+        int[] humidities = new int[batchSize];
+        List<MeasurementDTO> dtos = new ArrayList<>(batchSize);
+        long start = LocalDateTime.of(2024, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        for (int i = 0; i < batchSize; i++) {
+            sensorIds[i] = 1 + random.nextInt(50);
+            epochMillis[i] = start + i * 1000L;
+            temperatures[i] = random.nextInt(1500, 3000);
+            humidities[i] = random.nextInt(2000, 8000);
+            dtos.add(new MeasurementDTO(sensorIds[i],
+                LocalDateTime.ofEpochSecond(epochMillis[i] / 1000, 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(temperatures[i], 2), BigDecimal.valueOf(humidities[i], 2)));
+        }
+        json = objectMapper.writeValueAsBytes(dtos);
+        binary = new MeasurementFrame(sensorIds, epochMillis, temperatures, humidities).encode();
+        System.out.printf("%n%d readings: JSON %d bytes (%.1f per reading), binary %d bytes (%.1f per reading)%n",
+            batchSize, json.length, (double) json.length / batchSize, binary.length, (double) binary.length / batchSize);
+    }
+
+    @Benchmark
+    public List<MeasurementDTO> jsonDecode() throws IOException {
+        return objectMapper.readValue(json, DTO_LIST);
+    }
+
+    @Benchmark
+    public MeasurementFrame binaryDecode() {
+        return MeasurementFrame.decode(binary, batchSize);
+    }
+}
@@ -0,0 +1,129 @@
+package com.roomsensors.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.model.Measurement;
+import com.roomsensors.roomsensors.model.Sensor;
+import com.roomsensors.roomsensors.service.MeasurementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping and serialization cost for {@code size} measurements on the entity-based endpoints:
+ * <ul>
+ *   <li>{@code convertToDTO}, {@code convertToEntity}: the private mappers of {@link MeasurementService},
+ *       called through constant method handles that the JIT inlines like a direct call</li>
+ *   <li>{@code serializeDtoList}: Jackson writing the DTO list as the controllers return it</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@org.openjdk.jmh.annotations.Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasurementDtoBenchmark {
+
+    private static final MethodHandle CONVERT_TO_DTO;
+    private static final MethodHandle CONVERT_TO_ENTITY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(MeasurementService.class, MethodHandles.lookup());
+            CONVERT_TO_DTO = lookup.findVirtual(MeasurementService.class, "convertToDTO",
+                MethodType.methodType(MeasurementDTO.class, Measurement.class));
+            CONVERT_TO_ENTITY = lookup.findVirtual(MeasurementService.class, "convertToEntity",
+                MethodType.methodType(Measurement.class, MeasurementDTO.class, Sensor.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000"})
+    private int size;
+
+    // Configured like Spring Boot's ObjectMapper, which writes ISO timestamps
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final MeasurementService measurementService = new MeasurementService();
+    private final Sensor sensor = new Sensor();
+    private List<Measurement> entities;
+    private List<MeasurementDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        sensor.setId(1L);
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        entities = new ArrayList<>(size);
+        dtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Measurement measurement = new Measurement(sensor, start.plusSeconds(i * 30L),
+                BigDecimal.valueOf(random.nextInt(1500, 3000), 2), BigDecimal.valueOf(random.nextInt(2000, 8000), 2));
+            measurement.setId(i + 1L);
+            entities.add(measurement);
+            dtos.add(toDTO(measurement));
+        }
+    }
+
+    @Benchmark
+    public List<MeasurementDTO> convertToDTO() {
+        List<MeasurementDTO> result = new ArrayList<>(entities.size());
+        for (Measurement measurement : entities) {
+            result.add(toDTO(measurement));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Measurement> convertToEntity() {
+        List<Measurement> result = new ArrayList<>(dtos.size());
+        for (MeasurementDTO dto : dtos) {
+            result.add(toEntity(dto));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serializeDtoList() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    private MeasurementDTO toDTO(Measurement measurement) {
+        try {
+            return (MeasurementDTO) CONVERT_TO_DTO.invokeExact(measurementService, measurement);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Measurement toEntity(MeasurementDTO dto) {
+        try {
+            return (Measurement) CONVERT_TO_ENTITY.invokeExact(measurementService, dto, sensor);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
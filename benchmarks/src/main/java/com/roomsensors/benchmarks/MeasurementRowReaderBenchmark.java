@@ -0,0 +1,106 @@
+package com.roomsensors.benchmarks;
+
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@code rows} measurements of one sensor from an in-memory H2 database, the bulk read behind the
+ * statistics and export endpoints:
+ * <ul>
+ *   <li>{@code objectRows}: the row shape of the previous JPQL stream, an {@code Object[]} with a boxed ID, a
+ *       {@code LocalDateTime} and two {@code BigDecimal}s per row (without Hibernate's own per-row work)</li>
+ *   <li>{@code primitiveRows}: {@link MeasurementRowReader}, scaled integers handed to a callback</li>
+ * </ul>
+ * Run with {@code -prof gc} and divide {@code gc.alloc.rate.norm} by {@code rows} for bytes per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasurementRowReaderBenchmark {
+
+    private static final String OBJECT_SQL = "SELECT id, timestamp, temperature, humidity FROM measurements "
+        + "WHERE sensor_id = ? AND timestamp BETWEEN ? AND ? ORDER BY timestamp, id";
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"100000"})
+    private int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MeasurementRowReader reader;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:rows;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+        jdbcTemplate.execute("CREATE TABLE measurements (id BIGINT PRIMARY KEY, sensor_id BIGINT NOT NULL, "
+            + "timestamp TIMESTAMP(6) NOT NULL, temperature DECIMAL(5,2) NOT NULL, humidity DECIMAL(5,2) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_measurements_sensor_timestamp ON measurements (sensor_id, timestamp)");
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{i + 1L, 1L, START.plusSeconds(i),
+                random.nextInt(1500, 3000) / 100.0, random.nextInt(2000, 8000) / 100.0});
+            if (batch.size() == 1000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO measurements VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        end = START.plusSeconds(rows);
+        reader = new MeasurementRowReader(dataSource, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE measurements");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void objectRows(Blackhole blackhole) {
+        jdbcTemplate.query(OBJECT_SQL, (ResultSet rs) -> {
+            blackhole.consume(new Object[]{
+                rs.getObject(1, Long.class), rs.getObject(2, LocalDateTime.class),
+                rs.getBigDecimal(3), rs.getBigDecimal(4)});
+        }, 1L, START, end);
+    }
+
+    @Benchmark
+    public void primitiveRows(Blackhole blackhole) {
+        reader.forEachRow(1L, START, end, (id, epochMicros, temperature, humidity) -> {
+            blackhole.consume(id);
+            blackhole.consume(epochMicros);
+            blackhole.consume(temperature);
+            blackhole.consume(humidity);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.roomsensors.benchmarks;
+
+import com.roomsensors.roomsensors.dto.MetricStatisticsDTO;
+import com.roomsensors.roomsensors.service.MetricAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregating a synthetic temperature series of {@code size} readings (a daily cycle with noise, in
+ * hundredths as stored in DECIMAL(5,2)):
+ * <ul>
+ *   <li>{@code metricAccumulator}: the single pass behind the statistics endpoint, with count, min, max,
+ *       mean, stddev and exact p50/p95/p99 from a histogram</li>
+ *   <li>{@code sortedPercentiles}: the same percentiles by sorting a copy of the series</li>
+ *   <li>{@code bigDecimalAverage}: the mean over {@code BigDecimal} values, as entity-based code computes it</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricAggregationBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    private int[] series;
+    private BigDecimal[] decimalSeries;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        series = new int[size];
+        decimalSeries = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            // One reading per minute: 21 degrees +/- 4 over the day, +/- 0.5 noise
+            double cycle = Math.sin(2 * Math.PI * (i % 1440) / 1440.0);
+            series[i] = (int) Math.round(2100 + 400 * cycle) + random.nextInt(-50, 51);
+            decimalSeries[i] = BigDecimal.valueOf(series[i], 2);
+        }
+    }
+
+    @Benchmark
+    public MetricStatisticsDTO metricAccumulator() {
+        MetricAccumulator accumulator = new MetricAccumulator();
+        for (int value : series) {
+            accumulator.add(value);
+        }
+        return accumulator.toStatistics();
+    }
+
+    @Benchmark
+    public int[] sortedPercentiles() {
+        int[] sorted = series.clone();
+        Arrays.sort(sorted);
+        return new int[]{percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99)};
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAverage() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal value : decimalSeries) {
+            sum = sum.add(value);
+        }
+        return sum.divide(BigDecimal.valueOf(size), 2, RoundingMode.HALF_UP);
+    }
+
+    // Nearest-rank, as MetricAccumulator computes it
+    private static int percentile(int[] sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
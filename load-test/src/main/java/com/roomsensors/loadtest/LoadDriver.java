@@ -0,0 +1,92 @@
+package com.roomsensors.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs scenarios on an open model: a scheduler thread per scenario starts each request at its planned time on
+ * a virtual thread, regardless of how many are still in flight. Latency is measured from the planned start,
+ * not the actual send, so a stalled system is charged for the requests it delayed (no coordinated omission).
+ * Requests planned during the warmup run but are not recorded.
+ */
+public class LoadDriver {
+
+    private final HttpClient client;
+
+    public LoadDriver(HttpClient client) {
+        this.client = client;
+    }
+
+    public Map<String, RouteStats> run(List<Scenario> scenarios, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Map<String, RouteStats> stats = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        // Closing the executor waits for requests still in flight; the request timeout bounds that wait
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Thread> schedulers = new ArrayList<>();
+            for (Scenario scenario : scenarios) {
+                RouteStats routeStats = new RouteStats(scenario.route());
+                stats.put(scenario.route(), routeStats);
+                schedulers.add(Thread.ofPlatform().name("load-" + scenario.route()).start(() ->
+                    schedule(scenario, routeStats, requests, start, measureFrom, end)));
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+        }
+        return stats;
+    }
+
+    private void schedule(Scenario scenario, RouteStats stats, ExecutorService requests,
+                          long start, long measureFrom, long end) {
+        long period = scenario.period().toNanos();
+        for (long planned = start; planned < end; planned += period) {
+            long wait;
+            while ((wait = planned - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long plannedStart = planned;
+            RouteStats recordTo = planned >= measureFrom ? stats : null;
+            for (int i = 0; i < scenario.requestsPerTick(); i++) {
+                requests.execute(() -> execute(scenario, plannedStart, recordTo));
+            }
+        }
+    }
+
+    private void execute(Scenario scenario, long plannedStart, RouteStats stats) {
+        String error = null;
+        try {
+            int status = client.send(scenario.requests().get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status / 100 != 2) {
+                error = "status-" + status;
+            }
+        } catch (IOException e) {
+            error = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (stats == null) {
+            return;
+        }
+        long latencyMicros = (System.nanoTime() - plannedStart) / 1000;
+        if (error == null) {
+            stats.recordSuccess(latencyMicros);
+        } else {
+            stats.recordError(latencyMicros, error);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.roomsensors.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Results of a run: one HdrHistogram percentile distribution per route ({@code <route>.hgrm}, milliseconds,
+ * readable by the HdrHistogram plotter) and {@code summary.properties}, sorted and without timestamps so two
+ * summaries, or a summary and a committed baseline, diff line by line.
+ */
+public class LoadReport {
+
+    private static final String[] LATENCY_METRICS = {"p50", "p99", "p999"};
+
+    private final Map<String, RouteStats> stats;
+    private final Map<String, String> summary = new TreeMap<>();
+
+    public LoadReport(Map<String, RouteStats> stats, Duration duration) {
+        this.stats = stats;
+        for (RouteStats route : stats.values()) {
+            Histogram histogram = route.getHistogram();
+            String prefix = route.getRoute() + ".";
+            summary.put(prefix + "requests", String.valueOf(route.getRequests()));
+            summary.put(prefix + "throughput", format(route.getSuccesses() / (duration.toMillis() / 1000.0)));
+            summary.put(prefix + "p50.ms", millis(histogram.getValueAtPercentile(50)));
+            summary.put(prefix + "p99.ms", millis(histogram.getValueAtPercentile(99)));
+            summary.put(prefix + "p999.ms", millis(histogram.getValueAtPercentile(99.9)));
+            summary.put(prefix + "max.ms", millis(histogram.getMaxValue()));
+            summary.put(prefix + "errors", String.valueOf(route.getErrorCount()));
+            route.getErrors().forEach((kind, count) -> summary.put(prefix + "errors." + kind, String.valueOf(count)));
+        }
+    }
+
+    public void write(Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        for (RouteStats route : stats.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve(route.getRoute() + ".hgrm")))) {
+                route.getHistogram().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        writeSummary(outputDir.resolve("summary.properties"));
+    }
+
+    public void writeSummary(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Throughput in successful requests/s; latencies in ms from the planned start, errors included");
+        summary.forEach((key, value) -> lines.add(key + "=" + value));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-14s %9s %10s %9s %9s %9s %9s %7s%n",
+            "route", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (String route : routes(summary.keySet())) {
+            out.printf("%-14s %9s %10s %9s %9s %9s %9s %7s%n", route,
+                summary.get(route + ".requests"), summary.get(route + ".throughput"),
+                summary.get(route + ".p50.ms"), summary.get(route + ".p99.ms"), summary.get(route + ".p999.ms"),
+                summary.get(route + ".max.ms"), summary.get(route + ".errors"));
+            summary.forEach((key, value) -> {
+                if (key.startsWith(route + ".errors.")) {
+                    out.printf("%-14s   %s: %s%n", "", key.substring(route.length() + 8), value);
+                }
+            });
+        }
+    }
+
+    /**
+     * Prints each route's change against {@code baselineFile} and returns whether any route regressed: a
+     * latency percentile or the throughput worse by more than {@code threshold} (0.2 = 20%), or the error
+     * rate up by more than one percentage point.
+     */
+    public boolean compare(Path baselineFile, double threshold, PrintStream out) throws IOException {
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselineFile)) {
+            baseline.load(reader);
+        }
+
+        boolean regressed = false;
+        out.printf("%-14s %-10s %10s %10s %8s%n", "route", "metric", "baseline", "current", "change");
+        TreeSet<String> allRoutes = new TreeSet<>(routes(summary.keySet()));
+        allRoutes.addAll(routes(baseline.stringPropertyNames()));
+        for (String route : allRoutes) {
+            if (!summary.containsKey(route + ".requests") || baseline.getProperty(route + ".requests") == null) {
+                out.printf("%-14s only in %s%n", route, summary.containsKey(route + ".requests") ? "current" : "baseline");
+                continue;
+            }
+            for (String metric : LATENCY_METRICS) {
+                regressed |= compare(out, route, metric, baseline.getProperty(route + "." + metric + ".ms"),
+                    summary.get(route + "." + metric + ".ms"), threshold, true);
+            }
+            regressed |= compare(out, route, "req/s", baseline.getProperty(route + ".throughput"),
+                summary.get(route + ".throughput"), threshold, false);
+
+            double baselineErrors = errorRate(baseline.getProperty(route + ".errors"),
+                baseline.getProperty(route + ".requests"));
+            double currentErrors = errorRate(summary.get(route + ".errors"), summary.get(route + ".requests"));
+            boolean errorsRegressed = currentErrors > baselineErrors + 0.01;
+            out.printf("%-14s %-10s %9s%% %9s%% %8s%s%n", route, "errors", format(baselineErrors * 100),
+                format(currentErrors * 100), "", errorsRegressed ? "  REGRESSION" : "");
+            regressed |= errorsRegressed;
+        }
+        return regressed;
+    }
+
+    private static boolean compare(PrintStream out, String route, String metric, String baselineValue,
+                                   String currentValue, double threshold, boolean lowerIsBetter) {
+        double before = Double.parseDouble(baselineValue);
+        double after = Double.parseDouble(currentValue);
+        double change = before == 0 ? 0 : (after - before) / before;
+        boolean regressed = lowerIsBetter ? change > threshold : change < -threshold;
+        out.printf("%-14s %-10s %10s %10s %+7.1f%%%s%n", route, metric, baselineValue, currentValue, change * 100,
+            regressed ? "  REGRESSION" : "");
+        return regressed;
+    }
+
+    private static double errorRate(String errors, String requests) {
+        long total = Long.parseLong(requests);
+        return total == 0 ? 0 : Long.parseLong(errors) / (double) total;
+    }
+
+    private static TreeSet<String> routes(Iterable<String> keys) {
+        TreeSet<String> routes = new TreeSet<>();
+        for (String key : keys) {
+            if (key.endsWith(".requests")) {
+                routes.add(key.substring(0, key.length() - ".requests".length()));
+            }
+        }
+        return routes;
+    }
+
+    private static String millis(long micros) {
+        return format(micros / 1000.0);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,70 @@
+package com.roomsensors.loadtest;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the stub environment, prepares the workload data, runs the scenarios through the gateway and writes
+ * the report. Exits with 1 when {@code --baseline} is given and a route regressed against it.
+ *
+ * <pre>
+ * java -jar load-test/target/load-test.jar [--workload=mixed] [--key=value ...]
+ * </pre>
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        Path outputDir = Path.of(settings.get("output", "load-test/target/load-results"))
+            .resolve(settings.getWorkload()).toAbsolutePath();
+        Duration warmup = settings.getDuration("warmup", "15s");
+        Duration duration = settings.getDuration("duration", "60s");
+
+        System.out.println("Starting eureka-server, config-server, sensor-service and api-gateway (logs in "
+            + outputDir.resolve("logs") + ")");
+        Map<String, RouteStats> stats;
+        try (StubEnvironment environment = StubEnvironment.start(settings, outputDir)) {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+            Workload workload = new Workload(settings, environment.getGatewayUrl(), client);
+            System.out.println("Preparing users, sensors and history through " + environment.getGatewayUrl());
+            workload.prepare(environment.getJdbcUrl());
+
+            List<Scenario> scenarios = workload.scenarios();
+            for (Scenario scenario : scenarios) {
+                System.out.printf("  %-14s %8.1f req/s%n", scenario.route(), scenario.getRequestsPerSecond());
+            }
+            System.out.println("Running " + settings.getWorkload() + ": " + warmup.toSeconds() + "s warmup, "
+                + duration.toSeconds() + "s measured");
+            stats = new LoadDriver(client).run(scenarios, warmup, duration);
+        }
+
+        LoadReport report = new LoadReport(stats, duration);
+        report.write(outputDir);
+        report.print(System.out);
+        System.out.println("Histograms and summary.properties in " + outputDir);
+
+        String baseline = settings.get("baseline", "");
+        if (settings.getBoolean("save-baseline", false)) {
+            Path file = Path.of(baseline.isEmpty() ? "load-test/baselines/" + settings.getWorkload() + ".properties"
+                : baseline);
+            report.writeSummary(file);
+            System.out.println("Baseline saved to " + file);
+        } else if (!baseline.isEmpty() && !Files.exists(Path.of(baseline))) {
+            System.out.println("No baseline at " + baseline + "; save one with --save-baseline=true");
+        } else if (!baseline.isEmpty()) {
+            System.out.println();
+            boolean regressed = report.compare(Path.of(baseline), settings.getDouble("regression-threshold", 0.2),
+                System.out);
+            if (regressed) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.roomsensors.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Workload and harness settings: a workload file ({@code workloads/<name>.properties} on the classpath, or a
+ * path ending in {@code .properties}) overridden by {@code --key=value} arguments.
+ */
+public class LoadTestSettings {
+
+    private final String workload;
+    private final Properties properties;
+
+    private LoadTestSettings(String workload, Properties properties) {
+        this.workload = workload;
+        this.properties = properties;
+    }
+
+    public static LoadTestSettings parse(String[] args) throws IOException {
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            overrides.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String workload = overrides.getProperty("workload", "mixed");
+        Properties properties = new Properties();
+        if (workload.endsWith(".properties")) {
+            try (Reader reader = Files.newBufferedReader(Path.of(workload))) {
+                properties.load(reader);
+            }
+            workload = Path.of(workload).getFileName().toString().replace(".properties", "");
+        } else {
+            try (InputStream in = LoadTestSettings.class.getResourceAsStream("/workloads/" + workload + ".properties")) {
+                if (in == null) {
+                    throw new IllegalArgumentException("Unknown workload: " + workload);
+                }
+                properties.load(in);
+            }
+        }
+        properties.putAll(overrides);
+        return new LoadTestSettings(workload, properties);
+    }
+
+    public String getWorkload() {
+        return workload;
+    }
+
+    public String get(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue).trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    // 500ms, 30s, 10m, 2h
+    public Duration getDuration(String key, String defaultValue) {
+        String value = get(key, defaultValue);
+        int unitStart = 0;
+        while (unitStart < value.length() && Character.isDigit(value.charAt(unitStart))) {
+            unitStart++;
+        }
+        if (unitStart == 0) {
+            throw new IllegalArgumentException("Invalid duration for " + key + ": " + value);
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        return switch (value.substring(unitStart)) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration for " + key + ": " + value);
+        };
+    }
+}
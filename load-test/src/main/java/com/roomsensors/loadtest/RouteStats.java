@@ -0,0 +1,62 @@
+package com.roomsensors.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds, 3 significant digits) and outcome counts of one route. Every request counts
+ * in the histogram, successful or not, so errors that return fast cannot improve the percentiles unnoticed.
+ */
+public class RouteStats {
+
+    private final String route;
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final LongAdder successes = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public RouteStats(String route) {
+        this.route = route;
+    }
+
+    public void recordSuccess(long latencyMicros) {
+        histogram.recordValue(Math.max(latencyMicros, 1));
+        successes.increment();
+    }
+
+    // status-429, status-503, HttpTimeoutException, ...
+    public void recordError(long latencyMicros, String kind) {
+        histogram.recordValue(Math.max(latencyMicros, 1));
+        errors.computeIfAbsent(kind, key -> new LongAdder()).increment();
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getRequests() {
+        return histogram.getTotalCount();
+    }
+
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    public long getErrorCount() {
+        return getRequests() - getSuccesses();
+    }
+
+    public Map<String, Long> getErrors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((kind, count) -> result.put(kind, count.sum()));
+        return result;
+    }
+}
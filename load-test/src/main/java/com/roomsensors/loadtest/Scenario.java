@@ -0,0 +1,24 @@
+package com.roomsensors.loadtest;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * One route of a workload: {@code requestsPerTick} requests are started every {@code period}, whether or not
+ * earlier ones have completed (open model), each built fresh by {@code requests}.
+ */
+public record Scenario(String route, Duration period, int requestsPerTick, Supplier<HttpRequest> requests) {
+
+    public static Scenario atRate(String route, double requestsPerSecond, Supplier<HttpRequest> requests) {
+        return new Scenario(route, Duration.ofNanos((long) (1_000_000_000L / requestsPerSecond)), 1, requests);
+    }
+
+    public static Scenario inBursts(String route, Duration interval, int burstSize, Supplier<HttpRequest> requests) {
+        return new Scenario(route, interval, burstSize, requests);
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerTick * 1_000_000_000.0 / period.toNanos();
+    }
+}
@@ -0,0 +1,115 @@
+package com.roomsensors.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One service of the stub environment, run as a separate JVM from its Spring Boot jar with output redirected
+ * to a log file.
+ */
+public class ServiceProcess implements AutoCloseable {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private final String name;
+    private final Process process;
+    private final Path logFile;
+
+    private ServiceProcess(String name, Process process, Path logFile) {
+        this.name = name;
+        this.process = process;
+        this.logFile = logFile;
+    }
+
+    public static ServiceProcess start(String name, Path jar, List<String> jvmArgs, List<String> args, Path logDir)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(args);
+
+        Path logFile = logDir.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(logFile.toFile())
+            .start();
+        return new ServiceProcess(name, process, logFile);
+    }
+
+    /**
+     * The executable jar of a module: {@code <module>/target/*-exec.jar} when the module also publishes a plain
+     * jar (sensor-service), otherwise {@code <module>/target/<module>-<version>.jar}.
+     */
+    public static Path findJar(Path servicesDir, String module) throws IOException {
+        Path target = servicesDir.resolve(module).resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IllegalStateException("No build output for " + module + " in " + target
+                + "; run mvn package -DskipTests first");
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            List<Path> jars = files
+                .filter(file -> file.getFileName().toString().startsWith(module + "-"))
+                .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                .sorted()
+                .toList();
+            return jars.stream()
+                .filter(file -> file.getFileName().toString().endsWith("-exec.jar"))
+                .findFirst()
+                .or(() -> jars.stream().findFirst())
+                .orElseThrow(() -> new IllegalStateException("No jar for " + module + " in " + target));
+        }
+    }
+
+    /**
+     * Polls {@code uri} until it answers with a status below 500, failing early if the process exits. Spring
+     * Boot opens its port only once the context has started, so even a 401 or 403 means the service is up.
+     */
+    public void awaitReady(URI uri, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2))
+            .header("Accept", "application/json").GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + logFile);
+            }
+            try {
+                if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(name + " not ready after " + timeout + ", see " + logFile);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.roomsensors.loadtest;
+
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * eureka-server, config-server, sensor-service and api-gateway as local JVMs on free ports, with an embedded
+ * H2 database served over TCP from this JVM. config-server runs with the {@code native} profile from a
+ * generated directory and serves sensor-service its datasource and gateway identity settings, so the whole
+ * startup path (registry, remote configuration, discovery-based routing) is exercised without external
+ * services. Registry and load-balancer refresh intervals are shortened so the gateway routes within seconds.
+ */
+public class StubEnvironment implements AutoCloseable {
+
+    private final Server database;
+    private final String jdbcUrl;
+    private final List<ServiceProcess> processes = new ArrayList<>();
+    private String gatewayUrl;
+    private boolean closed;
+
+    private StubEnvironment(Server database, String jdbcUrl) {
+        this.database = database;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public static StubEnvironment start(LoadTestSettings settings, Path workDir) throws Exception {
+        Path servicesDir = Path.of(settings.get("services-dir", ".")).toAbsolutePath().normalize();
+        Duration startupTimeout = settings.getDuration("startup-timeout", "180s");
+        List<String> jvmArgs = Arrays.asList(settings.get("service-jvm-args", "-Xmx512m").split("\\s+"));
+        Path logDir = Files.createDirectories(workDir.resolve("logs"));
+
+        int databasePort = freePort();
+        Server database = Server.createTcpServer("-tcpPort", String.valueOf(databasePort), "-ifNotExists").start();
+        StubEnvironment environment = new StubEnvironment(database,
+            "jdbc:h2:tcp://localhost:" + databasePort + "/mem:loadtest;DB_CLOSE_DELAY=-1");
+        // Also stops the services when the harness is interrupted, during startup or the run
+        Runtime.getRuntime().addShutdownHook(new Thread(environment::close, "stub-environment-shutdown"));
+        try {
+            environment.startServices(servicesDir, workDir, logDir, jvmArgs, startupTimeout);
+        } catch (Exception e) {
+            environment.close();
+            throw e;
+        }
+        return environment;
+    }
+
+    private void startServices(Path servicesDir, Path workDir, Path logDir, List<String> jvmArgs,
+                               Duration startupTimeout) throws Exception {
+        int eurekaPort = freePort();
+        int configPort = freePort();
+        int sensorPort = freePort();
+        int gatewayPort = freePort();
+        String eurekaZone = "--eureka.client.service-url.defaultZone=http://localhost:" + eurekaPort + "/eureka/";
+        String identitySecret = randomSecret();
+
+        Path configRepo = Files.createDirectories(workDir.resolve("config-repo"));
+        Files.writeString(configRepo.resolve("room-sensors-service.properties"), String.join("\n",
+            "spring.datasource.url=" + jdbcUrl,
+            "spring.jpa.show-sql=false",
+            "gateway.identity.trust=true",
+            "gateway.identity.secret=" + identitySecret,
+            "eureka.instance.lease-renewal-interval-in-seconds=1",
+            "eureka.client.initial-instance-info-replication-interval-seconds=1",
+            "eureka.client.instance-info-replication-interval-seconds=1",
+            ""));
+
+        ServiceProcess eureka = launch("eureka-server", servicesDir, jvmArgs, logDir,
+            "--server.port=" + eurekaPort,
+            "--eureka.server.use-read-only-response-cache=false",
+            "--eureka.server.enable-self-preservation=false",
+            "--logging.level.com.netflix.eureka=INFO",
+            "--logging.level.com.netflix.discovery=INFO");
+        ServiceProcess config = launch("config-server", servicesDir, jvmArgs, logDir,
+            "--server.port=" + configPort,
+            "--spring.profiles.active=native",
+            "--spring.cloud.config.server.native.search-locations=file:" + configRepo + "/",
+            eurekaZone);
+        ServiceProcess gateway = launch("api-gateway", servicesDir, jvmArgs, logDir,
+            "--server.port=" + gatewayPort,
+            "--gateway.identity.secret=" + identitySecret,
+            "--eureka.client.registry-fetch-interval-seconds=1",
+            "--spring.cloud.loadbalancer.cache.ttl=1s",
+            eurekaZone);
+
+        eureka.awaitReady(URI.create("http://localhost:" + eurekaPort + "/eureka/apps"), startupTimeout);
+        config.awaitReady(URI.create("http://localhost:" + configPort + "/room-sensors-service/default"),
+            startupTimeout);
+
+        // Needs config-server up: the import is not optional
+        ServiceProcess sensor = launch("sensor-service", servicesDir, jvmArgs, logDir,
+            "--server.port=" + sensorPort,
+            "--spring.config.import=configserver:http://localhost:" + configPort,
+            eurekaZone);
+
+        sensor.awaitReady(URI.create("http://localhost:" + sensorPort + "/actuator/health"), startupTimeout);
+        gateway.awaitReady(URI.create("http://localhost:" + gatewayPort + "/actuator/health"), startupTimeout);
+        gatewayUrl = "http://localhost:" + gatewayPort;
+        awaitRoute(startupTimeout);
+    }
+
+    // The gateway answers 503 until its registry copy and load balancer know about sensor-service
+    private void awaitRoute(Duration timeout) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(gatewayUrl + "/api/auth/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"probe\",\"password\":\"probe\"}"))
+            .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            int status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 503 && status != 404) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("api-gateway does not route to sensor-service after " + timeout);
+    }
+
+    private ServiceProcess launch(String module, Path servicesDir, List<String> jvmArgs, Path logDir,
+                                  String... args) throws IOException {
+        ServiceProcess process = ServiceProcess.start(module, ServiceProcess.findJar(servicesDir, module),
+            jvmArgs, List.of(args), logDir);
+        processes.add(process);
+        return process;
+    }
+
+    public String getGatewayUrl() {
+        return gatewayUrl;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // Gateway and sensor-service first, so they do not log registry errors for the whole shutdown
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            processes.get(i).close();
+        }
+        database.stop();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
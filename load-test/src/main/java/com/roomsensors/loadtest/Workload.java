@@ -0,0 +1,237 @@
+package com.roomsensors.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * The mixed workload against the gateway. {@link #prepare} creates the users, sensors and measurement history
+ * through the API; {@link #scenarios} returns one scenario per route with a rate above zero:
+ * <ul>
+ *   <li>{@code login}: a reader logging in</li>
+ *   <li>{@code ingest}: a single reading at the current time</li>
+ *   <li>{@code ingest-burst}: bursts of concurrent JSON batches, like gateways flushing their buffers</li>
+ *   <li>{@code range-read}: the first page of a random window of one sensor's history</li>
+ *   <li>{@code average}, {@code statistics}: aggregates over hour-aligned windows, so some hit the gateway cache</li>
+ * </ul>
+ * Writes use writer tokens and reads reader tokens, each picked at random, so the gateway's per-client rate
+ * limits apply as they would to that many clients.
+ */
+public class Workload {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final LoadTestSettings settings;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<String> readerNames = new ArrayList<>();
+    private final List<String> readerTokens = new ArrayList<>();
+    private final List<String> writerTokens = new ArrayList<>();
+    private final List<Long> sensorIds = new ArrayList<>();
+    private LocalDateTime historyStart;
+    private LocalDateTime historyEnd;
+
+    public Workload(LoadTestSettings settings, String baseUrl, HttpClient client) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.client = client;
+    }
+
+    public void prepare(String jdbcUrl) throws Exception {
+        int writers = settings.getInt("writers", 10);
+        int readers = settings.getInt("readers", 20);
+
+        List<String> writerNames = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            writerNames.add("load-writer-" + i);
+            register(writerNames.get(i));
+        }
+        for (int i = 0; i < readers; i++) {
+            readerNames.add("load-reader-" + i);
+            register(readerNames.get(i));
+        }
+        // Registration always grants READ_ONLY; promote the writers directly in the embedded database
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE users SET role = 'READ_WRITE' WHERE username LIKE 'load-writer-%'");
+        }
+        for (String name : writerNames) {
+            writerTokens.add(login(name));
+        }
+        for (String name : readerNames) {
+            readerTokens.add(login(name));
+        }
+
+        for (int i = 0; i < settings.getInt("sensors", 20); i++) {
+            String body = "{\"name\":\"load-sensor-" + i + "\",\"location\":\"Room " + i
+                + "\",\"active\":true,\"type\":\"INDOOR\"}";
+            JsonNode sensor = send(post("/api/sensors", writerTokens.get(i % writers), body));
+            sensorIds.add(sensor.get("id").asLong());
+        }
+        seedHistory();
+    }
+
+    // Evenly spaced readings up to now for every sensor, one writer per sensor at a time
+    private void seedHistory() throws Exception {
+        int perSensor = settings.getInt("history-per-sensor", 10_000);
+        int batchSize = settings.getInt("history-batch-size", 2_000);
+        Duration interval = settings.getDuration("history-interval", "10s");
+        historyEnd = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        historyStart = historyEnd.minus(interval.multipliedBy(perSensor));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(writerTokens.size())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < sensorIds.size(); s++) {
+                long sensorId = sensorIds.get(s);
+                String token = writerTokens.get(s % writerTokens.size());
+                futures.add(executor.submit(() -> {
+                    for (int offset = 0; offset < perSensor; offset += batchSize) {
+                        int count = Math.min(batchSize, perSensor - offset);
+                        LocalDateTime first = historyStart.plus(interval.multipliedBy(offset + 1));
+                        send(post("/api/measurements/batch", token, readings(sensorId, first, interval, count)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    public List<Scenario> scenarios() {
+        List<Scenario> scenarios = new ArrayList<>();
+        addAtRate(scenarios, "login", () -> {
+            String body = "{\"username\":\"" + pick(readerNames) + "\",\"password\":\"" + PASSWORD + "\"}";
+            return post("/api/auth/login", null, body);
+        });
+        addAtRate(scenarios, "ingest", () -> post("/api/measurements", pick(writerTokens),
+            reading(pick(sensorIds), LocalDateTime.now(ZoneOffset.UTC))));
+
+        int bursts = settings.getInt("ingest-burst.size", 0);
+        if (bursts > 0) {
+            int batchSize = settings.getInt("ingest-burst.batch-size", 500);
+            scenarios.add(Scenario.inBursts("ingest-burst", settings.getDuration("ingest-burst.interval", "10s"),
+                bursts, () -> post("/api/measurements/batch", pick(writerTokens), readings(pick(sensorIds),
+                    LocalDateTime.now(ZoneOffset.UTC).minusSeconds(batchSize), Duration.ofSeconds(1), batchSize))));
+        }
+
+        Duration rangeWindow = settings.getDuration("range-read.window", "1h");
+        int rangeLimit = settings.getInt("range-read.limit", 500);
+        addAtRate(scenarios, "range-read", () -> {
+            LocalDateTime start = randomStart(rangeWindow).truncatedTo(ChronoUnit.MINUTES);
+            return get("/api/measurements/sensor/" + pick(sensorIds) + "/range?start=" + TIMESTAMP.format(start)
+                + "&end=" + TIMESTAMP.format(start.plus(rangeWindow)) + "&limit=" + rangeLimit, pick(readerTokens));
+        });
+
+        Duration aggregateWindow = settings.getDuration("aggregate.window", "24h");
+        for (String aggregate : List.of("average", "statistics")) {
+            addAtRate(scenarios, aggregate, () -> {
+                LocalDateTime start = randomStart(aggregateWindow).truncatedTo(ChronoUnit.HOURS);
+                return get("/api/measurements/sensor/" + pick(sensorIds) + "/" + aggregate + "?start="
+                    + TIMESTAMP.format(start) + "&end=" + TIMESTAMP.format(start.plus(aggregateWindow)),
+                    pick(readerTokens));
+            });
+        }
+        return scenarios;
+    }
+
+    private void addAtRate(List<Scenario> scenarios, String route, Supplier<HttpRequest> requests) {
+        double rate = settings.getDouble(route + ".rate", 0);
+        if (rate > 0) {
+            scenarios.add(Scenario.atRate(route, rate, requests));
+        }
+    }
+
+    private LocalDateTime randomStart(Duration window) {
+        long span = Math.max(Duration.between(historyStart, historyEnd).minus(window).toSeconds(), 1);
+        return historyStart.plusSeconds(ThreadLocalRandom.current().nextLong(span));
+    }
+
+    private void register(String username) throws IOException, InterruptedException {
+        send(post("/api/users/register", null,
+            "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+
+    private String login(String username) throws IOException, InterruptedException {
+        return send(post("/api/auth/login", null,
+            "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}")).get("token").asText();
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned "
+                + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Authorization", "Bearer " + token)
+            .GET()
+            .build();
+    }
+
+    private static String readings(long sensorId, LocalDateTime first, Duration interval, int count) {
+        StringBuilder json = new StringBuilder(count * 96).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(reading(sensorId, first.plus(interval.multipliedBy(i))));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String reading(long sensorId, LocalDateTime timestamp) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"sensorId\":" + sensorId + ",\"timestamp\":\"" + TIMESTAMP.format(timestamp)
+            + "\",\"temperature\":" + hundredths(random.nextInt(1800, 2600))
+            + ",\"humidity\":" + hundredths(random.nextInt(3000, 6000)) + "}";
+    }
+
+    private static String hundredths(int value) {
+        return value / 100 + "." + (value % 100 < 10 ? "0" : "") + value % 100;
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
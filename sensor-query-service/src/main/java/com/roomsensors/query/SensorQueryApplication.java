@@ -0,0 +1,15 @@
+package com.roomsensors.query;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+
+@SpringBootApplication
+@EnableDiscoveryClient
+public class SensorQueryApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(SensorQueryApplication.class, args);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.roomsensors.query.config;
+
+import com.roomsensors.query.filter.JwtAuthenticationFilter;
+import com.roomsensors.query.service.GatewayIdentityService;
+import com.roomsensors.query.service.JwtService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SecurityConfig {
+    
+    @Autowired
+    private JwtService jwtService;
+    
+    @Autowired
+    private GatewayIdentityService gatewayIdentityService;
+    
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf(csrf -> csrf.disable())
+            .httpBasic(httpBasic -> httpBasic.disable())
+            .formLogin(formLogin -> formLogin.disable())
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            // Same answer as sensor-service for requests without valid credentials
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .authorizeExchange(auth -> auth
+                .pathMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/webjars/**", "/actuator/health").permitAll()
+                .pathMatchers("/api/reactive/**").hasAnyAuthority("ROLE_READ_ONLY", "ROLE_READ_WRITE")
+                .anyExchange().authenticated()
+            )
+            .addFilterAt(new JwtAuthenticationFilter(jwtService, gatewayIdentityService), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+}
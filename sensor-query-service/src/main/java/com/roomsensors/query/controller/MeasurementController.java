@@ -0,0 +1,78 @@
+package com.roomsensors.query.controller;
+
+import com.roomsensors.query.dto.AverageMeasurementDTO;
+import com.roomsensors.query.dto.MeasurementDTO;
+import com.roomsensors.query.service.MeasurementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Streams measurements as a JSON array or, with {@code Accept: application/x-ndjson}, one JSON object per
+ * line. Rows are read from the database only as fast as the client consumes the response, so a slow client
+ * holds a connection but no thread and no buffered result set.
+ */
+@RestController
+@RequestMapping("/api/reactive/measurements")
+@Tag(name = "Measurement Queries", description = "Reactive read API for sensor measurements")
+@SecurityRequirement(name = "bearerAuth")
+public class MeasurementController {
+    
+    @Autowired
+    private MeasurementService measurementService;
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get measurement by ID", description = "Retrieve a measurement by its ID")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Mono<MeasurementDTO> getMeasurementById(
+            @Parameter(description = "Measurement ID") @PathVariable Long id) {
+        return measurementService.getMeasurementById(id);
+    }
+    
+    @GetMapping(value = "/sensor/{sensorId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Stream measurements by sensor", description = "Stream all measurements of a sensor, ordered by timestamp and id")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Flux<MeasurementDTO> getMeasurementsBySensor(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId) {
+        return measurementService.getMeasurementsBySensor(sensorId);
+    }
+    
+    @GetMapping(value = "/sensor/{sensorId}/range", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Stream measurements by sensor and time range", description = "Stream the measurements of a sensor "
+        + "in a time range, ordered by timestamp and id, without paging")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Flux<MeasurementDTO> getMeasurementsBySensorAndTimeRange(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return measurementService.getMeasurementsBySensorAndTimeRange(sensorId, start, end);
+    }
+    
+    @GetMapping("/sensor/{sensorId}/latest")
+    @Operation(summary = "Get latest measurement", description = "Most recent stored reading of a sensor")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Mono<MeasurementDTO> getLatestMeasurement(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId) {
+        return measurementService.getLatestMeasurement(sensorId);
+    }
+    
+    @GetMapping("/sensor/{sensorId}/average")
+    @Operation(summary = "Get average measurements", description = "Average temperature and humidity of a sensor over a time range")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Mono<AverageMeasurementDTO> getAverageMeasurements(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return measurementService.getAverageMeasurements(sensorId, start, end);
+    }
+}
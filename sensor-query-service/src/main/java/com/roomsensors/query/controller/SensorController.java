@@ -0,0 +1,39 @@
+package com.roomsensors.query.controller;
+
+import com.roomsensors.query.dto.SensorDTO;
+import com.roomsensors.query.service.SensorService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/reactive/sensors")
+@Tag(name = "Sensor Queries", description = "Reactive read API for sensors")
+@SecurityRequirement(name = "bearerAuth")
+public class SensorController {
+    
+    @Autowired
+    private SensorService sensorService;
+    
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Get all sensors", description = "Stream all sensors as a JSON array or NDJSON")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Flux<SensorDTO> getAllSensors() {
+        return sensorService.getAllSensors();
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get sensor by ID", description = "Retrieve a sensor by its ID")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public Mono<SensorDTO> getSensorById(
+            @Parameter(description = "Sensor ID") @PathVariable Long id) {
+        return sensorService.getSensorById(id);
+    }
+}
@@ -0,0 +1,69 @@
+package com.roomsensors.query.dto;
+
+import com.roomsensors.query.model.SensorType;
+
+public class SensorDTO {
+    
+    private Long id;
+    
+    private String name;
+    
+    private String location;
+    
+    private Boolean active;
+    
+    private SensorType type;
+    
+    // Constructors
+    public SensorDTO() {
+    }
+    
+    public SensorDTO(String name, String location, Boolean active, SensorType type) {
+        this.name = name;
+        this.location = location;
+        this.active = active;
+        this.type = type;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getLocation() {
+        return location;
+    }
+    
+    public void setLocation(String location) {
+        this.location = location;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+    
+    public SensorType getType() {
+        return type;
+    }
+    
+    public void setType(SensorType type) {
+        this.type = type;
+    }
+}
+
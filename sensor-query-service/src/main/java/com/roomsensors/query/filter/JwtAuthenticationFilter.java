@@ -0,0 +1,68 @@
+package com.roomsensors.query.filter;
+
+import com.roomsensors.query.service.GatewayIdentityService;
+import com.roomsensors.query.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * Reactive counterpart of sensor-service's filter: authenticates the request from the gateway's signed
+ * identity header when trusted, otherwise from the bearer token. Verification is CPU-only and cached, so it
+ * runs inline on the event loop. Added to the security chain by {@code SecurityConfig} rather than
+ * registered as a bean, which would also run it once more outside the chain.
+ */
+public class JwtAuthenticationFilter implements WebFilter {
+    
+    private final JwtService jwtService;
+    private final GatewayIdentityService gatewayIdentityService;
+    
+    public JwtAuthenticationFilter(JwtService jwtService, GatewayIdentityService gatewayIdentityService) {
+        this.jwtService = jwtService;
+        this.gatewayIdentityService = gatewayIdentityService;
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String authHeader = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        String identityHeader = gatewayIdentityService.isTrusted()
+            ? headers.getFirst(GatewayIdentityService.IDENTITY_HEADER)
+            : null;
+        
+        if (identityHeader == null && (authHeader == null || !authHeader.startsWith("Bearer "))) {
+            return chain.filter(exchange);
+        }
+        
+        JwtService.VerifiedToken token = identityHeader != null
+            ? gatewayIdentityService.verify(identityHeader)
+            : verify(authHeader.substring(7));
+        if (token == null || token.username() == null) {
+            return chain.filter(exchange);
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            token.username(),
+            null,
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + token.role()))
+        );
+        return chain.filter(exchange)
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authToken));
+    }
+    
+    // An invalid or expired token leaves the request unauthenticated, so protected endpoints answer 403
+    private JwtService.VerifiedToken verify(String jwt) {
+        try {
+            return jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
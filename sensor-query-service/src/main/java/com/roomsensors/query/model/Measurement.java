@@ -0,0 +1,65 @@
+package com.roomsensors.query.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Table("measurements")
+public class Measurement {
+    
+    @Id
+    private Long id;
+    
+    @Column("sensor_id")
+    private Long sensorId;
+    
+    private LocalDateTime timestamp;
+    
+    private BigDecimal temperature;
+    
+    private BigDecimal humidity;
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public void setSensorId(Long sensorId) {
+        this.sensorId = sensorId;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public BigDecimal getTemperature() {
+        return temperature;
+    }
+    
+    public void setTemperature(BigDecimal temperature) {
+        this.temperature = temperature;
+    }
+    
+    public BigDecimal getHumidity() {
+        return humidity;
+    }
+    
+    public void setHumidity(BigDecimal humidity) {
+        this.humidity = humidity;
+    }
+}
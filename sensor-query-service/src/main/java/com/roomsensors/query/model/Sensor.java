@@ -0,0 +1,60 @@
+package com.roomsensors.query.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("sensors")
+public class Sensor {
+    
+    @Id
+    private Long id;
+    
+    private String name;
+    
+    private String location;
+    
+    private Boolean active;
+    
+    private SensorType type;
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getLocation() {
+        return location;
+    }
+    
+    public void setLocation(String location) {
+        this.location = location;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+    
+    public SensorType getType() {
+        return type;
+    }
+    
+    public void setType(SensorType type) {
+        this.type = type;
+    }
+}
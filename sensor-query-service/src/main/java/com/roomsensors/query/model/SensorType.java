@@ -0,0 +1,7 @@
+package com.roomsensors.query.model;
+
+public enum SensorType {
+    OUTDOOR,
+    INDOOR,
+    WATER
+}
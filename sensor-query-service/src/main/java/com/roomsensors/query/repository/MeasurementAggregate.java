@@ -0,0 +1,76 @@
+package com.roomsensors.query.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Count, sums and extremes of a sensor's measurements in a time range, as computed by
+ * {@link MeasurementRepository#aggregateBySensorIdAndTimestampBetween}. Sums and extremes are null when the
+ * range holds no measurements.
+ */
+public class MeasurementAggregate {
+    
+    private Long sampleCount;
+    private BigDecimal temperatureSum;
+    private BigDecimal temperatureMin;
+    private BigDecimal temperatureMax;
+    private BigDecimal humiditySum;
+    private BigDecimal humidityMin;
+    private BigDecimal humidityMax;
+    
+    // Getters and Setters
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+    
+    public BigDecimal getTemperatureSum() {
+        return temperatureSum;
+    }
+    
+    public void setTemperatureSum(BigDecimal temperatureSum) {
+        this.temperatureSum = temperatureSum;
+    }
+    
+    public BigDecimal getTemperatureMin() {
+        return temperatureMin;
+    }
+    
+    public void setTemperatureMin(BigDecimal temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+    
+    public BigDecimal getTemperatureMax() {
+        return temperatureMax;
+    }
+    
+    public void setTemperatureMax(BigDecimal temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+    
+    public BigDecimal getHumiditySum() {
+        return humiditySum;
+    }
+    
+    public void setHumiditySum(BigDecimal humiditySum) {
+        this.humiditySum = humiditySum;
+    }
+    
+    public BigDecimal getHumidityMin() {
+        return humidityMin;
+    }
+    
+    public void setHumidityMin(BigDecimal humidityMin) {
+        this.humidityMin = humidityMin;
+    }
+    
+    public BigDecimal getHumidityMax() {
+        return humidityMax;
+    }
+    
+    public void setHumidityMax(BigDecimal humidityMax) {
+        this.humidityMax = humidityMax;
+    }
+}
@@ -0,0 +1,46 @@
+package com.roomsensors.query.repository;
+
+import com.roomsensors.query.model.Measurement;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only R2DBC counterpart of sensor-service's {@code MeasurementRepository}. Rows are emitted as the
+ * subscriber requests them, and on PostgreSQL fetched from the server in batches of
+ * {@code spring.r2dbc.properties.fetchSize}, so a long range is never held in memory at once.
+ */
+@Repository
+public interface MeasurementRepository extends R2dbcRepository<Measurement, Long> {
+    
+    @Query("SELECT id, sensor_id, timestamp, temperature, humidity FROM measurements "
+        + "WHERE sensor_id = :sensorId ORDER BY timestamp, id")
+    Flux<Measurement> findBySensorId(@Param("sensorId") Long sensorId);
+    
+    @Query("SELECT id, sensor_id, timestamp, temperature, humidity FROM measurements "
+        + "WHERE sensor_id = :sensorId AND timestamp BETWEEN :start AND :end ORDER BY timestamp, id")
+    Flux<Measurement> findBySensorIdAndTimestampBetween(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    @Query("SELECT id, sensor_id, timestamp, temperature, humidity FROM measurements "
+        + "WHERE sensor_id = :sensorId ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<Measurement> findLatestBySensorId(@Param("sensorId") Long sensorId, @Param("limit") int limit);
+    
+    @Query("SELECT COUNT(*) AS sample_count, SUM(temperature) AS temperature_sum, "
+        + "MIN(temperature) AS temperature_min, MAX(temperature) AS temperature_max, "
+        + "SUM(humidity) AS humidity_sum, MIN(humidity) AS humidity_min, MAX(humidity) AS humidity_max "
+        + "FROM measurements WHERE sensor_id = :sensorId AND timestamp BETWEEN :start AND :end")
+    Mono<MeasurementAggregate> aggregateBySensorIdAndTimestampBetween(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+}
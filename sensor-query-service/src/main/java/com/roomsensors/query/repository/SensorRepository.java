@@ -0,0 +1,9 @@
+package com.roomsensors.query.repository;
+
+import com.roomsensors.query.model.Sensor;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SensorRepository extends R2dbcRepository<Sensor, Long> {
+}
@@ -0,0 +1,76 @@
+package com.roomsensors.query.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Copy of sensor-service's {@code com.roomsensors.roomsensors.service.GatewayIdentityService}, which documents the
+ * header format; the API gateway's {@code EdgeTokenService} signs it. Only used when {@code gateway.identity.trust=true}.
+ */
+@Service
+public class GatewayIdentityService {
+
+    public static final String IDENTITY_HEADER = "X-Gateway-Identity";
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    @Value("${gateway.identity.trust:false}")
+    private boolean trusted;
+
+    @Value("${gateway.identity.secret:}")
+    private String secret;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        if (!trusted) {
+            return;
+        }
+        if (secret.isBlank()) {
+            throw new RuntimeException("gateway.identity.trust=true requires gateway.identity.secret");
+        }
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    // Null when the header is malformed, not signed with the shared secret or expired
+    public JwtService.VerifiedToken verify(String header) {
+        int signatureStart = header.lastIndexOf('.');
+        String[] parts = header.split("\\.");
+        if (parts.length != 4 || signatureStart < 0) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] expected = mac.doFinal(header.substring(0, signatureStart).getBytes(StandardCharsets.UTF_8));
+            byte[] actual = BASE64_ENCODER.encodeToString(expected).getBytes(StandardCharsets.US_ASCII);
+            if (!MessageDigest.isEqual(actual, parts[3].getBytes(StandardCharsets.US_ASCII))) {
+                return null;
+            }
+            long expiresAtMillis = Long.parseLong(parts[2]) * 1000;
+            if (expiresAtMillis <= System.currentTimeMillis()) {
+                return null;
+            }
+            String username = new String(BASE64_DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+            return new JwtService.VerifiedToken(username, parts[1], expiresAtMillis);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.roomsensors.query.service;
+
+import com.roomsensors.query.dto.AverageMeasurementDTO;
+import com.roomsensors.query.dto.MeasurementDTO;
+import com.roomsensors.query.model.Measurement;
+import com.roomsensors.query.repository.MeasurementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+public class MeasurementService {
+    
+    @Autowired
+    private MeasurementRepository measurementRepository;
+    
+    @Autowired
+    private SensorService sensorService;
+    
+    public Mono<MeasurementDTO> getMeasurementById(Long id) {
+        return measurementRepository.findById(id)
+            .map(this::convertToDTO)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Measurement not found with id: " + id)));
+    }
+    
+    // The sensor is looked up first, so an unknown sensor fails before any part of the response is written
+    public Flux<MeasurementDTO> getMeasurementsBySensor(Long sensorId) {
+        return sensorService.getSensorById(sensorId)
+            .thenMany(measurementRepository.findBySensorId(sensorId))
+            .map(this::convertToDTO);
+    }
+    
+    public Flux<MeasurementDTO> getMeasurementsBySensorAndTimeRange(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            return Flux.error(new RuntimeException("Range start must not be after its end"));
+        }
+        return sensorService.getSensorById(sensorId)
+            .thenMany(measurementRepository.findBySensorIdAndTimestampBetween(sensorId, start, end))
+            .map(this::convertToDTO);
+    }
+    
+    public Mono<MeasurementDTO> getLatestMeasurement(Long sensorId) {
+        return sensorService.getSensorById(sensorId)
+            .then(measurementRepository.findLatestBySensorId(sensorId, 1).next())
+            .map(this::convertToDTO)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("No measurements for sensor with id: " + sensorId)));
+    }
+    
+    public Mono<AverageMeasurementDTO> getAverageMeasurements(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        return sensorService.getSensorById(sensorId)
+            .then(measurementRepository.aggregateBySensorIdAndTimestampBetween(sensorId, start, end))
+            .map(aggregate -> {
+                long count = aggregate.getSampleCount() != null ? aggregate.getSampleCount() : 0;
+                Double avgTemp = count > 0 ? aggregate.getTemperatureSum().doubleValue() / count : 0.0;
+                Double avgHumidity = count > 0 ? aggregate.getHumiditySum().doubleValue() / count : 0.0;
+                return new AverageMeasurementDTO(avgTemp, avgHumidity);
+            });
+    }
+    
+    private MeasurementDTO convertToDTO(Measurement measurement) {
+        MeasurementDTO dto = new MeasurementDTO(measurement.getSensorId(), measurement.getTimestamp(),
+            measurement.getTemperature(), measurement.getHumidity());
+        dto.setId(measurement.getId());
+        return dto;
+    }
+}
@@ -0,0 +1,32 @@
+package com.roomsensors.query.service;
+
+import com.roomsensors.query.dto.SensorDTO;
+import com.roomsensors.query.model.Sensor;
+import com.roomsensors.query.repository.SensorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class SensorService {
+    
+    @Autowired
+    private SensorRepository sensorRepository;
+    
+    public Flux<SensorDTO> getAllSensors() {
+        return sensorRepository.findAll().map(this::convertToDTO);
+    }
+    
+    public Mono<SensorDTO> getSensorById(Long id) {
+        return sensorRepository.findById(id)
+            .map(this::convertToDTO)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Sensor not found with id: " + id)));
+    }
+    
+    private SensorDTO convertToDTO(Sensor sensor) {
+        SensorDTO dto = new SensorDTO(sensor.getName(), sensor.getLocation(), sensor.getActive(), sensor.getType());
+        dto.setId(sensor.getId());
+        return dto;
+    }
+}
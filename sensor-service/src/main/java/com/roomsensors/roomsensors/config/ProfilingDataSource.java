@@ -0,0 +1,264 @@
+package com.roomsensors.roomsensors.config;
+
+import com.roomsensors.roomsensors.service.QueryProfiler;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the connection pool so that, while query profiling is enabled, connections and the statements and result
+ * sets they create report to {@link QueryProfiler}: the wait for a pooled connection, the execution time of each
+ * statement, and the rows read from its result set or changed by it. While profiling is disabled the pool's own
+ * connections are returned.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final Supplier<QueryProfiler> profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, Supplier<QueryProfiler> profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        QueryProfiler queryProfiler = profiler.get();
+        if (!queryProfiler.isEnabled()) {
+            return super.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        queryProfiler.connectionAcquired(System.nanoTime() - start);
+        return profiled(connection, queryProfiler);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        QueryProfiler queryProfiler = profiler.get();
+        if (!queryProfiler.isEnabled()) {
+            return super.getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        queryProfiler.connectionAcquired(System.nanoTime() - start);
+        return profiled(connection, queryProfiler);
+    }
+
+    private static Connection profiled(Connection connection, QueryProfiler profiler) {
+        return proxy(Connection.class, new ConnectionHandler(connection, profiler));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Forwards every call to the wrapped JDBC object, with proxy identity for {@code equals} and {@code hashCode}.
+     */
+    private abstract static class ForwardingHandler implements InvocationHandler {
+
+        protected final Object target;
+
+        ForwardingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handle(proxy, method, args);
+            };
+        }
+
+        protected abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        protected Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends ForwardingHandler {
+
+        private final QueryProfiler profiler;
+
+        ConnectionHandler(Connection target, QueryProfiler profiler) {
+            super(target);
+            this.profiler = profiler;
+        }
+
+        @Override
+        protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall pass the SQL; createStatement passes it on execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, sql, (Connection) proxy, profiler));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends ForwardingHandler {
+
+        private final String sql;
+        private final Connection connection;
+        private final QueryProfiler profiler;
+        private String batchSql;
+        private String executedSql;
+        private long executedNanos;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement target, String sql, Connection connection, QueryProfiler profiler) {
+            super(target);
+            this.sql = sql;
+            this.connection = connection;
+            this.profiler = profiler;
+        }
+
+        @Override
+        protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery":
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute(proxy, method, args);
+                case "addBatch":
+                    if (batchSql == null && args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                    return forward(method, args);
+                case "getResultSet":
+                    ResultSet resultSet = (ResultSet) forward(method, args);
+                    return resultSet == null ? null : resultSet(proxy, resultSet);
+                case "getConnection":
+                    return connection;
+                case "close":
+                    finishResultSet();
+                    return forward(method, args);
+                default:
+                    return forward(method, args);
+            }
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            finishResultSet();
+            String name = method.getName();
+            executedSql = args != null && args.length > 0 && args[0] instanceof String statementSql ? statementSql
+                : name.contains("Batch") && batchSql != null ? batchSql
+                : sql;
+            batchSql = name.contains("Batch") ? null : batchSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(method, args);
+            } catch (Throwable e) {
+                profiler.executed(executedSql, System.nanoTime() - start, 0);
+                throw e;
+            }
+            executedNanos = System.nanoTime() - start;
+            // Queries are recorded once their rows have been read, when the result set is closed
+            if (result instanceof ResultSet resultSet) {
+                return resultSet(proxy, resultSet);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                return result;
+            }
+            profiler.executed(executedSql, executedNanos, rows(result));
+            return result;
+        }
+
+        private ResultSet resultSet(Object statement, ResultSet resultSet) {
+            openResultSet = new ResultSetHandler(resultSet, this, (Statement) statement);
+            return proxy(ResultSet.class, openResultSet);
+        }
+
+        void finished(ResultSetHandler resultSet) {
+            if (openResultSet == resultSet) {
+                openResultSet = null;
+            }
+            profiler.executed(executedSql, executedNanos, resultSet.rows);
+        }
+
+        private void finishResultSet() {
+            if (openResultSet != null) {
+                openResultSet.finish();
+            }
+        }
+
+        private static long rows(Object result) {
+            if (result instanceof Number count) {
+                return Math.max(count.longValue(), 0);
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class ResultSetHandler extends ForwardingHandler {
+
+        private final StatementHandler statementHandler;
+        private final Statement statement;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, StatementHandler statementHandler, Statement statement) {
+            super(target);
+            this.statementHandler = statementHandler;
+            this.statement = statement;
+        }
+
+        @Override
+        protected Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    Object hasRow = forward(method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        rows++;
+                    }
+                    return hasRow;
+                case "getStatement":
+                    return statement;
+                case "close":
+                    finish();
+                    return forward(method, args);
+                default:
+                    return forward(method, args);
+            }
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                statementHandler.finished(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.roomsensors.roomsensors.config;
+
+import com.roomsensors.roomsensors.service.QueryProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/queries}: GET returns the statements that took the most time, slow query and N+1 samples
+ * and connection pool waits; POST changes {@code enabled}, {@code slowThresholdMs} or {@code repeatedThreshold}
+ * at runtime; DELETE clears the collected statistics.
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueryProfilerEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    @Autowired
+    private QueryProfiler queryProfiler;
+
+    @ReadOperation
+    public Map<String, Object> report(@Nullable Integer limit) {
+        Map<String, Object> report = settings();
+        report.put("connectionAcquire", queryProfiler.getConnectionAcquire());
+        report.put("statements", queryProfiler.getStatements(limit != null ? limit : DEFAULT_LIMIT));
+        report.put("slowQueries", queryProfiler.getSlowQueries());
+        report.put("repeatedQueries", queryProfiler.getRepeatedQueries());
+        return report;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Long slowThresholdMs,
+                                         @Nullable Integer repeatedThreshold) {
+        if (slowThresholdMs != null) {
+            if (slowThresholdMs < 0) {
+                throw new InvalidEndpointRequestException("slowThresholdMs must not be negative", "Invalid slowThresholdMs");
+            }
+            queryProfiler.setSlowThreshold(Duration.ofMillis(slowThresholdMs));
+        }
+        if (repeatedThreshold != null) {
+            if (repeatedThreshold < 2) {
+                throw new InvalidEndpointRequestException("repeatedThreshold must be at least 2", "Invalid repeatedThreshold");
+            }
+            queryProfiler.setRepeatedThreshold(repeatedThreshold);
+        }
+        if (enabled != null) {
+            queryProfiler.setEnabled(enabled);
+        }
+        return settings();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryProfiler.reset();
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", queryProfiler.isEnabled());
+        settings.put("slowThresholdMs", queryProfiler.getSlowThreshold().toMillis());
+        settings.put("repeatedThreshold", queryProfiler.getRepeatedThreshold());
+        return settings;
+    }
+}
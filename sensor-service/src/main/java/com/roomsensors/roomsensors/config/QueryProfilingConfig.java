@@ -0,0 +1,29 @@
+package com.roomsensors.roomsensors.config;
+
+import com.roomsensors.roomsensors.service.QueryProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+@Configuration
+public class QueryProfilingConfig {
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+        // Resolved on first connection: post processors are created before the profiler
+        Supplier<QueryProfiler> profiler = SingletonSupplier.of(queryProfiler::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)
+                    ? new ProfilingDataSource(dataSource, profiler)
+                    : bean;
+            }
+        };
+    }
+}
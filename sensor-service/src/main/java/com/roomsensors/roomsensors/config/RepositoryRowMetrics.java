@@ -0,0 +1,105 @@
+package com.roomsensors.roomsensors.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Records the rows each Spring Data repository method returns (or changes, for {@code @Modifying} queries) as
+ * the {@code repository.rows} summary, tagged like the {@code spring.data.repository.invocations} timer Spring
+ * Boot records for the same calls. Streams are counted as they are consumed and recorded when closed. Counts,
+ * existence checks and void methods are not recorded.
+ */
+public class RepositoryRowMetrics implements BeanPostProcessor {
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryRowMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Resolved on first use: post processors are created before the registry
+        this.meterRegistry = SingletonSupplier.of(meterRegistry::getObject);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                (proxyFactory, information) -> proxyFactory.addAdvice(
+                    new RowCountInterceptor(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private DistributionSummary summary(String repository, Method method) {
+        return summaries.computeIfAbsent(method, key -> DistributionSummary.builder("repository.rows")
+            .description("Rows returned or changed by a repository method")
+            .baseUnit("rows")
+            .tag("repository", repository)
+            .tag("method", method.getName())
+            .register(meterRegistry.get()));
+    }
+
+    private final class RowCountInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        RowCountInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            Method method = invocation.getMethod();
+            if (result instanceof Stream<?> stream) {
+                long[] rows = new long[1];
+                return stream.peek(row -> rows[0]++).onClose(() -> summary(repository, method).record(rows[0]));
+            }
+            long rows = rows(method, result);
+            if (rows >= 0) {
+                summary(repository, method).record(rows);
+            }
+            return result;
+        }
+
+        private long rows(Method method, Object result) {
+            if (method.getReturnType() == void.class) {
+                return -1;
+            }
+            if (result instanceof Number number) {
+                return method.isAnnotationPresent(Modifying.class) ? number.longValue() : -1;
+            }
+            if (result instanceof Boolean) {
+                return -1;
+            }
+            if (result == null) {
+                return 0;
+            }
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Slice<?> slice) {
+                return slice.getNumberOfElements();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            return 1;
+        }
+    }
+}
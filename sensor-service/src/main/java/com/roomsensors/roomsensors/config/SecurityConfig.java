@@ -1,6 +1,7 @@
 package com.roomsensors.roomsensors.config;
 
 import com.roomsensors.roomsensors.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -53,6 +54,13 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses complete on an async dispatch of a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Instance-to-instance calls, authenticated by a shared secret in the controller and not routed by the gateway
+                .requestMatchers("/internal/**").permitAll()
+                // Prometheus scrapes without a token; not routed by the gateway
+                .requestMatchers("/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/queries").hasAuthority("ROLE_READ_WRITE")
                 .requestMatchers("/api/auth/**", "/api/users/register", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/api-docs/**", "/webjars/**", "/h2-console/**").permitAll()
                 .requestMatchers("/api/sensors/**", "/api/measurements/**").hasAnyAuthority("ROLE_READ_ONLY", "ROLE_READ_WRITE")
                 .requestMatchers("/api/users/**").hasAuthority("ROLE_READ_WRITE")
@@ -0,0 +1,41 @@
+package com.roomsensors.roomsensors.controller;
+
+import com.roomsensors.roomsensors.service.DiscoverySensorCacheBroadcaster;
+import com.roomsensors.roomsensors.service.SensorCache;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Receives sensor cache evictions from other instances. Not routed by the gateway and authenticated with
+ * the shared {@code sensors.cache.broadcast-secret} instead of a user token.
+ */
+@Hidden
+@RestController
+@RequestMapping("/internal/cache")
+public class InternalCacheController {
+    
+    @Autowired
+    private SensorCache sensorCache;
+    
+    @Value("${sensors.cache.broadcast-secret:}")
+    private String secret;
+    
+    @PostMapping("/sensors/{sensorId}/evict")
+    public ResponseEntity<Void> evictSensor(
+            @PathVariable Long sensorId,
+            @RequestHeader(value = DiscoverySensorCacheBroadcaster.SECRET_HEADER, required = false) String providedSecret) {
+        if (secret.isBlank() || providedSecret == null
+                || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), providedSecret.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        sensorCache.evictLocal(sensorId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,23 @@
 package com.roomsensors.roomsensors.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.roomsensors.roomsensors.dto.AverageMeasurementDTO;
+import com.roomsensors.roomsensors.dto.MeasurementBatchResultDTO;
 import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.dto.MeasurementPageDTO;
+import com.roomsensors.roomsensors.dto.MeasurementStatisticsDTO;
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.service.MeasurementCompactionService;
+import com.roomsensors.roomsensors.service.MeasurementHotWindow;
+import com.roomsensors.roomsensors.service.MeasurementIngestQueue;
+import com.roomsensors.roomsensors.service.MeasurementExportFormat;
+import com.roomsensors.roomsensors.service.MeasurementExportService;
+import com.roomsensors.roomsensors.service.MeasurementFrame;
 import com.roomsensors.roomsensors.service.MeasurementService;
+import com.roomsensors.roomsensors.service.MeasurementStatisticsService;
+import com.roomsensors.roomsensors.service.MeasurementStreamHub;
+import com.roomsensors.roomsensors.service.SensorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,13 +25,25 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/measurements")
@@ -27,6 +54,39 @@ public class MeasurementController {
     @Autowired
     private MeasurementService measurementService;
     
+    @Autowired
+    private MeasurementStatisticsService measurementStatisticsService;
+    
+    @Autowired
+    private MeasurementExportService measurementExportService;
+    
+    @Autowired
+    private MeasurementCompactionService measurementCompactionService;
+    
+    @Autowired
+    private SensorService sensorService;
+    
+    @Autowired
+    private MeasurementIngestQueue measurementIngestQueue;
+    
+    @Autowired
+    private MeasurementHotWindow measurementHotWindow;
+    
+    @Autowired
+    private MeasurementStreamHub measurementStreamHub;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${measurements.batch.max-size:10000}")
+    private int batchMaxSize;
+    
+    @Value("${measurements.hot-window.default-window:15m}")
+    private String defaultRecentWindow;
+    
+    @Value("${measurements.stream.overflow-policy:drop-oldest}")
+    private String defaultOverflowPolicy;
+    
     @GetMapping
     @Operation(summary = "Get all measurements", description = "Retrieve a list of all measurements")
     @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
@@ -35,6 +95,20 @@ public class MeasurementController {
         return ResponseEntity.ok(measurements);
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Get measurements page", description = "Retrieve measurements of all sensors in a time range, "
+        + "ordered by sensor, timestamp and id, one page at a time. Pass nextCursor from the previous page to continue. "
+        + "A compacted interval is returned as one reading without id, with the interval averages, sampleCount and min/max")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementPageDTO> getMeasurementPage(
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Page size, capped by the server") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor) {
+        MeasurementPageDTO page = measurementService.getMeasurementPage(start, end, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get measurement by ID", description = "Retrieve a measurement by its ID")
     @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
@@ -45,13 +119,63 @@ public class MeasurementController {
     }
     
     @PostMapping
-    @Operation(summary = "Create a new measurement", description = "Create a new measurement with the provided details")
+    @Operation(summary = "Create a new measurement", description = "Create a new measurement with the provided details. "
+        + "When asynchronous ingestion is enabled the measurement is queued and 202 Accepted is returned")
     @PreAuthorize("hasAuthority('ROLE_READ_WRITE')")
     public ResponseEntity<MeasurementDTO> createMeasurement(@Valid @RequestBody MeasurementDTO measurementDTO) {
+        if (measurementIngestQueue.isEnabled()) {
+            measurementIngestQueue.enqueue(measurementDTO);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(measurementDTO);
+        }
+        
         MeasurementDTO createdMeasurement = measurementService.createMeasurement(measurementDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdMeasurement);
     }
     
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create measurements in bulk", description = "Create many measurements from a JSON array and report per-item results")
+    @PreAuthorize("hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementBatchResultDTO> createMeasurements(@RequestBody List<MeasurementDTO> measurementDTOs) {
+        MeasurementBatchResultDTO result = measurementService.createMeasurements(measurementDTOs);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create measurements in bulk from NDJSON", description = "Create many measurements from newline-delimited JSON and report per-item results")
+    @PreAuthorize("hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementBatchResultDTO> createMeasurementsFromNdjson(InputStream body) {
+        List<MeasurementDTO> measurementDTOs = new ArrayList<>();
+        try (MappingIterator<MeasurementDTO> iterator = objectMapper.readerFor(MeasurementDTO.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (measurementDTOs.size() == batchMaxSize) {
+                    throw new RuntimeException("Batch exceeds maximum of " + batchMaxSize + " measurements");
+                }
+                measurementDTOs.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Malformed NDJSON at item " + measurementDTOs.size() + ": " + e.getMessage());
+        }
+        
+        MeasurementBatchResultDTO result = measurementService.createMeasurements(measurementDTOs);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping(value = "/batch", consumes = MeasurementFrame.CONTENT_TYPE)
+    @Operation(summary = "Create measurements in bulk from a binary frame", description = "Create many measurements from the compact "
+        + "binary frame format (24 bytes per reading, scaled integer values) and report per-item results")
+    @PreAuthorize("hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementBatchResultDTO> createMeasurementsFromFrame(InputStream body) {
+        MeasurementFrame frame;
+        try {
+            frame = MeasurementFrame.decode(body, batchMaxSize);
+        } catch (IOException e) {
+            throw new RuntimeException("Malformed measurement frame: " + e.getMessage());
+        }
+        
+        MeasurementBatchResultDTO result = measurementService.createMeasurements(frame);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping("/sensor/{sensorId}")
     @Operation(summary = "Get measurements by sensor", description = "Retrieve all measurements for a specific sensor")
     @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
@@ -61,6 +185,140 @@ public class MeasurementController {
         return ResponseEntity.ok(measurements);
     }
 
+    @GetMapping("/sensor/{sensorId}/latest")
+    @Operation(summary = "Get latest measurement", description = "Most recent reading of a sensor, served from memory")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementDTO> getLatestMeasurement(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId) {
+        MeasurementDTO measurement = measurementHotWindow.getLatest(sensorId);
+        return ResponseEntity.ok(measurement);
+    }
+
+    @GetMapping("/sensor/{sensorId}/recent")
+    @Operation(summary = "Get recent measurements", description = "Readings of a sensor within a window ending now, oldest first, "
+        + "served from memory. Limited to the newest readings kept per sensor")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<List<MeasurementDTO>> getRecentMeasurements(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Window such as 30s, 15m, 2h or PT15M") @RequestParam(required = false) String window) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window == null || window.isBlank() ? defaultRecentWindow : window.trim());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid window: " + window + ", expected e.g. 15m or PT15M");
+        }
+        if (duration.isNegative()) {
+            throw new RuntimeException("Window must not be negative");
+        }
+        List<MeasurementDTO> measurements = measurementHotWindow.getRecent(sensorId, duration);
+        return ResponseEntity.ok(measurements);
+    }
+
+    @GetMapping("/sensor/{sensorId}/range")
+    @Operation(summary = "Get measurements by sensor and time range", description = "Retrieve measurements of a sensor in a time range, "
+        + "ordered by timestamp and id, one page at a time. Pass nextCursor from the previous page to continue. "
+        + "A compacted interval is returned as one reading without id, with the interval averages, sampleCount and min/max")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementPageDTO> getMeasurementsBySensorAndTimeRange(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Page size, capped by the server") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor) {
+        MeasurementPageDTO page = measurementService.getMeasurementsBySensorAndTimeRange(sensorId, start, end, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/sensor/{sensorId}/average")
+    @Operation(summary = "Get average measurements", description = "Average temperature and humidity of a sensor over a time range")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<AverageMeasurementDTO> getAverageMeasurements(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        AverageMeasurementDTO averages = measurementService.getAverageMeasurements(sensorId, start, end);
+        return ResponseEntity.ok(averages);
+    }
+
+    @GetMapping("/sensor/{sensorId}/statistics")
+    @Operation(summary = "Get measurement statistics", description = "Count, min, max, average, standard deviation and p50/p95/p99 "
+        + "of temperature and humidity over a time range, optionally downsampled by minute, hour or day")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<MeasurementStatisticsDTO> getMeasurementStatistics(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Optional series resolution: minute, hour or day") @RequestParam(required = false) String groupBy) {
+        BucketResolution resolution = null;
+        if (groupBy != null && !groupBy.isBlank()) {
+            try {
+                resolution = BucketResolution.valueOf(groupBy.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported groupBy: " + groupBy + ", expected minute, hour or day");
+            }
+        }
+        MeasurementStatisticsDTO statistics = measurementStatisticsService.getStatistics(sensorId, start, end, resolution);
+        return ResponseEntity.ok(statistics);
+    }
+
+    @GetMapping("/sensor/{sensorId}/export")
+    @Operation(summary = "Export measurement history", description = "Stream the measurements of a sensor in a time range as NDJSON or CSV. "
+        + "The response is gzip-compressed when the client sends Accept-Encoding: gzip")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public ResponseEntity<StreamingResponseBody> exportMeasurements(
+            @Parameter(description = "Sensor ID") @PathVariable Long sensorId,
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "Range end (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MeasurementExportFormat exportFormat;
+        try {
+            exportFormat = MeasurementExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported export format: " + format + ", expected ndjson or csv");
+        }
+        sensorService.getSensorById(sensorId);
+        measurementCompactionService.requireRawHistory(sensorId, start);
+        
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out ->
+            measurementExportService.export(sensorId, start, end, exportFormat, gzip, out);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"sensor-" + sensorId + "-measurements." + exportFormat.getExtension() + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new measurements", description = "Server-Sent Events stream of measurements as they are stored. "
+        + "A slow client loses the oldest events (drop-oldest) or all but the newest per sensor (coalesce) and is sent a dropped event")
+    @PreAuthorize("hasAuthority('ROLE_READ_ONLY') or hasAuthority('ROLE_READ_WRITE')")
+    public SseEmitter streamMeasurements(
+            @Parameter(description = "Sensor IDs to follow; all sensors when omitted") @RequestParam(required = false) List<Long> sensorIds,
+            @Parameter(description = "Overflow policy for slow clients: drop-oldest or coalesce") @RequestParam(required = false) String overflow) {
+        String policyName = overflow == null || overflow.isBlank() ? defaultOverflowPolicy : overflow;
+        MeasurementStreamHub.OverflowPolicy policy;
+        try {
+            policy = MeasurementStreamHub.OverflowPolicy.valueOf(policyName.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported overflow policy: " + overflow + ", expected drop-oldest or coalesce");
+        }
+        Set<Long> sensors = new LinkedHashSet<>();
+        if (sensorIds != null) {
+            for (Long sensorId : sensorIds) {
+                sensorService.getSensorById(sensorId);
+                sensors.add(sensorId);
+            }
+        }
+        return measurementStreamHub.subscribe(sensors, policy);
+    }
+    
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete measurement", description = "Delete a measurement by its ID")
     @PreAuthorize("hasAuthority('ROLE_READ_WRITE')")
@@ -0,0 +1,61 @@
+package com.roomsensors.roomsensors.dto;
+
+public class MeasurementBatchItemResultDTO {
+    
+    private int index;
+    private boolean accepted;
+    private Long id;
+    private String error;
+    
+    // Constructors
+    public MeasurementBatchItemResultDTO() {
+    }
+    
+    public MeasurementBatchItemResultDTO(int index, boolean accepted, Long id, String error) {
+        this.index = index;
+        this.accepted = accepted;
+        this.id = id;
+        this.error = error;
+    }
+    
+    public static MeasurementBatchItemResultDTO accepted(int index, Long id) {
+        return new MeasurementBatchItemResultDTO(index, true, id, null);
+    }
+    
+    public static MeasurementBatchItemResultDTO rejected(int index, String error) {
+        return new MeasurementBatchItemResultDTO(index, false, null, error);
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public boolean isAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
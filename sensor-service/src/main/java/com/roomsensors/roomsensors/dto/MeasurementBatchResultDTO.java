@@ -0,0 +1,51 @@
+package com.roomsensors.roomsensors.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeasurementBatchResultDTO {
+    
+    private int accepted;
+    private int rejected;
+    private List<MeasurementBatchItemResultDTO> results = new ArrayList<>();
+    
+    // Constructors
+    public MeasurementBatchResultDTO() {
+    }
+    
+    public MeasurementBatchResultDTO(List<MeasurementBatchItemResultDTO> results) {
+        this.results = results;
+        for (MeasurementBatchItemResultDTO result : results) {
+            if (result.isAccepted()) {
+                accepted++;
+            } else {
+                rejected++;
+            }
+        }
+    }
+    
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<MeasurementBatchItemResultDTO> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<MeasurementBatchItemResultDTO> results) {
+        this.results = results;
+    }
+}
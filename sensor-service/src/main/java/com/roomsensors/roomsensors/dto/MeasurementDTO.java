@@ -1,5 +1,6 @@
 package com.roomsensors.roomsensors.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,6 +21,23 @@ public class MeasurementDTO {
     @NotNull(message = "Humidity is required")
     private BigDecimal humidity;
     
+    // Set only on compacted readings, which stand for every reading of an interval: temperature and humidity
+    // are the interval averages, and the reading has no id
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sampleCount;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal temperatureMin;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal temperatureMax;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal humidityMin;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal humidityMax;
+    
     // Constructors
     public MeasurementDTO() {
     }
@@ -71,5 +89,44 @@ public class MeasurementDTO {
     public void setHumidity(BigDecimal humidity) {
         this.humidity = humidity;
     }
+    
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+    
+    public BigDecimal getTemperatureMin() {
+        return temperatureMin;
+    }
+    
+    public void setTemperatureMin(BigDecimal temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+    
+    public BigDecimal getTemperatureMax() {
+        return temperatureMax;
+    }
+    
+    public void setTemperatureMax(BigDecimal temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+    
+    public BigDecimal getHumidityMin() {
+        return humidityMin;
+    }
+    
+    public void setHumidityMin(BigDecimal humidityMin) {
+        this.humidityMin = humidityMin;
+    }
+    
+    public BigDecimal getHumidityMax() {
+        return humidityMax;
+    }
+    
+    public void setHumidityMax(BigDecimal humidityMax) {
+        this.humidityMax = humidityMax;
+    }
 }
-
@@ -0,0 +1,36 @@
+package com.roomsensors.roomsensors.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeasurementPageDTO {
+    
+    private List<MeasurementDTO> items = new ArrayList<>();
+    private String nextCursor;
+    
+    // Constructors
+    public MeasurementPageDTO() {
+    }
+    
+    public MeasurementPageDTO(List<MeasurementDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<MeasurementDTO> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<MeasurementDTO> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.roomsensors.roomsensors.dto;
+
+import java.time.LocalDateTime;
+
+public class MeasurementStatisticsBucketDTO {
+    
+    private LocalDateTime bucketStart;
+    private long count;
+    private MetricStatisticsDTO temperature;
+    private MetricStatisticsDTO humidity;
+    
+    // Constructors
+    public MeasurementStatisticsBucketDTO() {
+    }
+    
+    public MeasurementStatisticsBucketDTO(LocalDateTime bucketStart, long count,
+                                          MetricStatisticsDTO temperature, MetricStatisticsDTO humidity) {
+        this.bucketStart = bucketStart;
+        this.count = count;
+        this.temperature = temperature;
+        this.humidity = humidity;
+    }
+    
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public MetricStatisticsDTO getTemperature() {
+        return temperature;
+    }
+    
+    public void setTemperature(MetricStatisticsDTO temperature) {
+        this.temperature = temperature;
+    }
+    
+    public MetricStatisticsDTO getHumidity() {
+        return humidity;
+    }
+    
+    public void setHumidity(MetricStatisticsDTO humidity) {
+        this.humidity = humidity;
+    }
+}
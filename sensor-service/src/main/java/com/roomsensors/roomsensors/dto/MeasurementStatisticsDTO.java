@@ -0,0 +1,87 @@
+package com.roomsensors.roomsensors.dto;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeasurementStatisticsDTO {
+    
+    private Long sensorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long count;
+    private MetricStatisticsDTO temperature;
+    private MetricStatisticsDTO humidity;
+    private BucketResolution groupBy;
+    private List<MeasurementStatisticsBucketDTO> series = new ArrayList<>();
+    
+    // Constructors
+    public MeasurementStatisticsDTO() {
+    }
+    
+    // Getters and Setters
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public void setSensorId(Long sensorId) {
+        this.sensorId = sensorId;
+    }
+    
+    public LocalDateTime getStart() {
+        return start;
+    }
+    
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+    
+    public LocalDateTime getEnd() {
+        return end;
+    }
+    
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public MetricStatisticsDTO getTemperature() {
+        return temperature;
+    }
+    
+    public void setTemperature(MetricStatisticsDTO temperature) {
+        this.temperature = temperature;
+    }
+    
+    public MetricStatisticsDTO getHumidity() {
+        return humidity;
+    }
+    
+    public void setHumidity(MetricStatisticsDTO humidity) {
+        this.humidity = humidity;
+    }
+    
+    public BucketResolution getGroupBy() {
+        return groupBy;
+    }
+    
+    public void setGroupBy(BucketResolution groupBy) {
+        this.groupBy = groupBy;
+    }
+    
+    public List<MeasurementStatisticsBucketDTO> getSeries() {
+        return series;
+    }
+    
+    public void setSeries(List<MeasurementStatisticsBucketDTO> series) {
+        this.series = series;
+    }
+}
@@ -0,0 +1,83 @@
+package com.roomsensors.roomsensors.dto;
+
+public class MetricStatisticsDTO {
+    
+    private Double min;
+    private Double max;
+    private Double avg;
+    private Double stddev;
+    private Double p50;
+    private Double p95;
+    private Double p99;
+    
+    // Constructors
+    public MetricStatisticsDTO() {
+    }
+    
+    public MetricStatisticsDTO(Double min, Double max, Double avg, Double stddev, Double p50, Double p95, Double p99) {
+        this.min = min;
+        this.max = max;
+        this.avg = avg;
+        this.stddev = stddev;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+    }
+    
+    // Getters and Setters
+    public Double getMin() {
+        return min;
+    }
+    
+    public void setMin(Double min) {
+        this.min = min;
+    }
+    
+    public Double getMax() {
+        return max;
+    }
+    
+    public void setMax(Double max) {
+        this.max = max;
+    }
+    
+    public Double getAvg() {
+        return avg;
+    }
+    
+    public void setAvg(Double avg) {
+        this.avg = avg;
+    }
+    
+    public Double getStddev() {
+        return stddev;
+    }
+    
+    public void setStddev(Double stddev) {
+        this.stddev = stddev;
+    }
+    
+    public Double getP50() {
+        return p50;
+    }
+    
+    public void setP50(Double p50) {
+        this.p50 = p50;
+    }
+    
+    public Double getP95() {
+        return p95;
+    }
+    
+    public void setP95(Double p95) {
+        this.p95 = p95;
+    }
+    
+    public Double getP99() {
+        return p99;
+    }
+    
+    public void setP99(Double p99) {
+        this.p99 = p99;
+    }
+}
@@ -0,0 +1,28 @@
+package com.roomsensors.roomsensors.event;
+
+import java.time.LocalDateTime;
+
+public class MeasurementDeletedEvent {
+    
+    private final Long sensorId;
+    private final Long measurementId;
+    private final LocalDateTime timestamp;
+    
+    public MeasurementDeletedEvent(Long sensorId, Long measurementId, LocalDateTime timestamp) {
+        this.sensorId = sensorId;
+        this.measurementId = measurementId;
+        this.timestamp = timestamp;
+    }
+    
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public Long getMeasurementId() {
+        return measurementId;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
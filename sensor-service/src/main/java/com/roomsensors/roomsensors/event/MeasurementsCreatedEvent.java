@@ -0,0 +1,22 @@
+package com.roomsensors.roomsensors.event;
+
+import com.roomsensors.roomsensors.model.Measurement;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that stored the measurements; listeners that need the data to be
+ * visible should use {@code @TransactionalEventListener}.
+ */
+public class MeasurementsCreatedEvent {
+    
+    private final List<Measurement> measurements;
+    
+    public MeasurementsCreatedEvent(List<Measurement> measurements) {
+        this.measurements = measurements;
+    }
+    
+    public List<Measurement> getMeasurements() {
+        return measurements;
+    }
+}
@@ -0,0 +1,23 @@
+package com.roomsensors.roomsensors.event;
+
+/**
+ * Published inside the transaction that updated or deleted a sensor.
+ */
+public class SensorChangedEvent {
+    
+    private final Long sensorId;
+    private final boolean deleted;
+    
+    public SensorChangedEvent(Long sensorId, boolean deleted) {
+        this.sensorId = sensorId;
+        this.deleted = deleted;
+    }
+    
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,15 @@
+package com.roomsensors.roomsensors.exception;
+
+public class IngestQueueFullException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public IngestQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.roomsensors.roomsensors.exception;
+
+public class StreamCapacityException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public StreamCapacityException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
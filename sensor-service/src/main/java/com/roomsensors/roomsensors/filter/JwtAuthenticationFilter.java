@@ -1,6 +1,11 @@
 package com.roomsensors.roomsensors.filter;
 
+import com.roomsensors.roomsensors.service.GatewayIdentityService;
 import com.roomsensors.roomsensors.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +20,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -22,36 +28,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private GatewayIdentityService gatewayIdentityService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Indexed by [gateway identity ? 1 : 0][authenticated ? 1 : 0]
+    private final Timer[][] authenticationTimers = new Timer[2][2];
+    
+    @PostConstruct
+    public void init() {
+        for (int source = 0; source < 2; source++) {
+            for (int outcome = 0; outcome < 2; outcome++) {
+                authenticationTimers[source][outcome] = Timer.builder("security.authentication")
+                    .description("Time spent authenticating a request in JwtAuthenticationFilter")
+                    .tag("source", source == 1 ? "gateway" : "token")
+                    .tag("outcome", outcome == 1 ? "authenticated" : "rejected")
+                    .register(meterRegistry);
+            }
+        }
+    }
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
+        // Behind the gateway the token was already verified there, and its signed identity header is enough
+        final String identityHeader = gatewayIdentityService.isTrusted()
+            ? request.getHeader(GatewayIdentityService.IDENTITY_HEADER)
+            : null;
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (identityHeader == null && (authHeader == null || !authHeader.startsWith("Bearer "))) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
-        
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtService.validateToken(jwt, username)) {
-                String role = jwtService.extractRole(jwt);
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            long start = System.nanoTime();
+            JwtService.VerifiedToken token = identityHeader != null
+                ? gatewayIdentityService.verify(identityHeader)
+                : verify(authHeader.substring(7));
+            boolean authenticated = token != null && token.getUsername() != null;
+            if (authenticated) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    username,
+                    token.getUsername(),
                     null,
-                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + token.getRole()))
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+            authenticationTimers[identityHeader != null ? 1 : 0][authenticated ? 1 : 0]
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         
         filterChain.doFilter(request, response);
     }
+    
+    // An invalid or expired token leaves the request unauthenticated, so protected endpoints answer 403
+    private JwtService.VerifiedToken verify(String jwt) {
+        try {
+            return jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
-
@@ -0,0 +1,41 @@
+package com.roomsensors.roomsensors.filter;
+
+import com.roomsensors.roomsensors.service.QueryProfiler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Scopes N+1 detection of {@link QueryProfiler} to one request, including the statements run by the security
+ * filters. Does nothing while query profiling is disabled.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryProfilingFilter extends OncePerRequestFilter {
+    
+    @Autowired
+    private QueryProfiler queryProfiler;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!queryProfiler.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        queryProfiler.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryProfiler.endRequest();
+        }
+    }
+}
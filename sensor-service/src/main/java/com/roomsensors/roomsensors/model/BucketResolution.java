@@ -0,0 +1,43 @@
+package com.roomsensors.roomsensors.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum BucketResolution {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+    
+    private final ChronoUnit unit;
+    
+    BucketResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+    
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+    
+    public LocalDateTime truncate(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+    
+    // Minutes, hours and days have a fixed length in UTC, so buckets of epoch timestamps are plain arithmetic
+    public long truncate(long epochMicros) {
+        long bucketMicros = unit.getDuration().toNanos() / 1000;
+        return Math.floorDiv(epochMicros, bucketMicros) * bucketMicros;
+    }
+    
+    public LocalDateTime ceil(LocalDateTime timestamp) {
+        LocalDateTime truncated = truncate(timestamp);
+        return truncated.equals(timestamp) ? truncated : next(truncated);
+    }
+    
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+    
+    public BucketResolution finer() {
+        return this == MINUTE ? null : values()[ordinal() - 1];
+    }
+}
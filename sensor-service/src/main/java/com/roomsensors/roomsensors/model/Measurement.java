@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class Measurement {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measurements_seq")
+    @SequenceGenerator(name = "measurements_seq", sequenceName = "measurements_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Sensor is required")
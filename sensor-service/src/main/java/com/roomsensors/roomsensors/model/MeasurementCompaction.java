@@ -0,0 +1,59 @@
+package com.roomsensors.roomsensors.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Compaction checkpoint of one sensor: its raw measurements before {@code compactedUntil} have been replaced
+ * by its rollups of {@code resolution}, except for the readings kept as outliers.
+ */
+@Entity
+@Table(name = "measurement_compaction")
+public class MeasurementCompaction {
+    
+    @Id
+    @Column(name = "sensor_id")
+    private Long sensorId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BucketResolution resolution;
+    
+    @Column(name = "compacted_until", nullable = false)
+    private LocalDateTime compactedUntil;
+    
+    // Constructors
+    public MeasurementCompaction() {
+    }
+    
+    public MeasurementCompaction(Long sensorId, BucketResolution resolution, LocalDateTime compactedUntil) {
+        this.sensorId = sensorId;
+        this.resolution = resolution;
+        this.compactedUntil = compactedUntil;
+    }
+    
+    // Getters and Setters
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public void setSensorId(Long sensorId) {
+        this.sensorId = sensorId;
+    }
+    
+    public BucketResolution getResolution() {
+        return resolution;
+    }
+    
+    public void setResolution(BucketResolution resolution) {
+        this.resolution = resolution;
+    }
+    
+    public LocalDateTime getCompactedUntil() {
+        return compactedUntil;
+    }
+    
+    public void setCompactedUntil(LocalDateTime compactedUntil) {
+        this.compactedUntil = compactedUntil;
+    }
+}
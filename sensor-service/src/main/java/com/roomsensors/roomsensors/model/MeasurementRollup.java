@@ -0,0 +1,147 @@
+package com.roomsensors.roomsensors.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "measurement_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"sensor_id", "resolution", "bucket_start"})
+})
+public class MeasurementRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measurement_rollups_seq")
+    @SequenceGenerator(name = "measurement_rollups_seq", sequenceName = "measurement_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "sensor_id", nullable = false)
+    private Long sensorId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BucketResolution resolution;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount = 0L;
+    
+    @Column(name = "temperature_sum", nullable = false, precision = 19, scale = 2)
+    private BigDecimal temperatureSum = BigDecimal.ZERO;
+    
+    @Column(name = "temperature_min", precision = 5, scale = 2)
+    private BigDecimal temperatureMin;
+    
+    @Column(name = "temperature_max", precision = 5, scale = 2)
+    private BigDecimal temperatureMax;
+    
+    @Column(name = "humidity_sum", nullable = false, precision = 19, scale = 2)
+    private BigDecimal humiditySum = BigDecimal.ZERO;
+    
+    @Column(name = "humidity_min", precision = 5, scale = 2)
+    private BigDecimal humidityMin;
+    
+    @Column(name = "humidity_max", precision = 5, scale = 2)
+    private BigDecimal humidityMax;
+    
+    // Constructors
+    public MeasurementRollup() {
+    }
+    
+    public MeasurementRollup(Long sensorId, BucketResolution resolution, LocalDateTime bucketStart) {
+        this.sensorId = sensorId;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public void setSensorId(Long sensorId) {
+        this.sensorId = sensorId;
+    }
+    
+    public BucketResolution getResolution() {
+        return resolution;
+    }
+    
+    public void setResolution(BucketResolution resolution) {
+        this.resolution = resolution;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+    
+    public BigDecimal getTemperatureSum() {
+        return temperatureSum;
+    }
+    
+    public void setTemperatureSum(BigDecimal temperatureSum) {
+        this.temperatureSum = temperatureSum;
+    }
+    
+    public BigDecimal getTemperatureMin() {
+        return temperatureMin;
+    }
+    
+    public void setTemperatureMin(BigDecimal temperatureMin) {
+        this.temperatureMin = temperatureMin;
+    }
+    
+    public BigDecimal getTemperatureMax() {
+        return temperatureMax;
+    }
+    
+    public void setTemperatureMax(BigDecimal temperatureMax) {
+        this.temperatureMax = temperatureMax;
+    }
+    
+    public BigDecimal getHumiditySum() {
+        return humiditySum;
+    }
+    
+    public void setHumiditySum(BigDecimal humiditySum) {
+        this.humiditySum = humiditySum;
+    }
+    
+    public BigDecimal getHumidityMin() {
+        return humidityMin;
+    }
+    
+    public void setHumidityMin(BigDecimal humidityMin) {
+        this.humidityMin = humidityMin;
+    }
+    
+    public BigDecimal getHumidityMax() {
+        return humidityMax;
+    }
+    
+    public void setHumidityMax(BigDecimal humidityMax) {
+        this.humidityMax = humidityMax;
+    }
+}
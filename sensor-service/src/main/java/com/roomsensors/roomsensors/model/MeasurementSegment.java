@@ -0,0 +1,117 @@
+package com.roomsensors.roomsensors.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry of one sealed segment: the measurements of a sensor in [{@code rangeStart}, {@code rangeEnd})
+ * that were moved from the measurements table into an immutable segment file of the cold storage engine.
+ */
+@Entity
+@Table(name = "measurement_segments", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"sensor_id", "range_start"})
+})
+public class MeasurementSegment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "measurement_segments_seq")
+    @SequenceGenerator(name = "measurement_segments_seq", sequenceName = "measurement_segments_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "sensor_id", nullable = false)
+    private Long sensorId;
+    
+    @Column(name = "range_start", nullable = false)
+    private LocalDateTime rangeStart;
+    
+    @Column(name = "range_end", nullable = false)
+    private LocalDateTime rangeEnd;
+    
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+    
+    // Measurement ids in the segment lie between these, so a lookup by id only opens candidate segments
+    @Column(name = "min_id", nullable = false)
+    private Long minId;
+    
+    @Column(name = "max_id", nullable = false)
+    private Long maxId;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+    
+    // Constructors
+    public MeasurementSegment() {
+    }
+    
+    public MeasurementSegment(Long sensorId, LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        this.sensorId = sensorId;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSensorId() {
+        return sensorId;
+    }
+    
+    public void setSensorId(Long sensorId) {
+        this.sensorId = sensorId;
+    }
+    
+    public LocalDateTime getRangeStart() {
+        return rangeStart;
+    }
+    
+    public void setRangeStart(LocalDateTime rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+    
+    public LocalDateTime getRangeEnd() {
+        return rangeEnd;
+    }
+    
+    public void setRangeEnd(LocalDateTime rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+    
+    public Integer getRowCount() {
+        return rowCount;
+    }
+    
+    public void setRowCount(Integer rowCount) {
+        this.rowCount = rowCount;
+    }
+    
+    public Long getMinId() {
+        return minId;
+    }
+    
+    public void setMinId(Long minId) {
+        this.minId = minId;
+    }
+    
+    public Long getMaxId() {
+        return maxId;
+    }
+    
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+    
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+    
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+}
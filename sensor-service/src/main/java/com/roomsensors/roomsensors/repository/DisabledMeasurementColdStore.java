@@ -0,0 +1,65 @@
+package com.roomsensors.roomsensors.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Without a cold storage engine every measurement stays in the measurements table.
+ */
+@Component
+@ConditionalOnProperty(name = "measurements.cold-storage.engine", havingValue = "none", matchIfMissing = true)
+public class DisabledMeasurementColdStore implements MeasurementColdStore {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public RowCursor open(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        return RowCursor.EMPTY;
+    }
+
+    @Override
+    public RowCursor open(Long sensorId) {
+        return RowCursor.EMPTY;
+    }
+
+    @Override
+    public MeasurementAggregate aggregate(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        return null;
+    }
+
+    @Override
+    public Optional<ColdMeasurement> findById(Long id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Long> findSensorIds() {
+        return List.of();
+    }
+
+    @Override
+    public List<Long> findSensorIds(LocalDateTime start, LocalDateTime end) {
+        return List.of();
+    }
+
+    @Override
+    public LocalDateTime findSealedUntil(Long sensorId) {
+        return null;
+    }
+
+    @Override
+    public void seal(Long sensorId, LocalDateTime start, LocalDateTime end, MeasurementColumns rows) {
+        throw new IllegalStateException("Cold storage is disabled");
+    }
+
+    @Override
+    public void deleteBySensorId(Long sensorId) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.roomsensors.roomsensors.repository;
+
+import java.math.BigDecimal;
+
+public interface MeasurementAggregate {
+    Long getSampleCount();
+    BigDecimal getTemperatureSum();
+    BigDecimal getTemperatureMin();
+    BigDecimal getTemperatureMax();
+    BigDecimal getHumiditySum();
+    BigDecimal getHumidityMin();
+    BigDecimal getHumidityMax();
+}
@@ -0,0 +1,99 @@
+package com.roomsensors.roomsensors.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for old measurements moved out of the measurements table. Sealed ranges are immutable; measurements
+ * keep their ids, and reads return them as the measurements table would. Selected with
+ * {@code measurements.cold-storage.engine}: {@code none} (the default) or {@code segment-files}.
+ */
+public interface MeasurementColdStore {
+
+    boolean isEnabled();
+
+    /**
+     * Measurements of a sensor in [start, end], ordered by timestamp and id.
+     */
+    RowCursor open(Long sensorId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * All measurements of a sensor, ordered by timestamp and id.
+     */
+    RowCursor open(Long sensorId);
+
+    /**
+     * Count, sums, minimums and maximums of a sensor's measurements in [start, end]; null without an engine.
+     */
+    MeasurementAggregate aggregate(Long sensorId, LocalDateTime start, LocalDateTime end);
+
+    Optional<ColdMeasurement> findById(Long id);
+
+    List<Long> findSensorIds();
+
+    List<Long> findSensorIds(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * End of the newest sealed range of a sensor, or null if nothing is sealed.
+     */
+    LocalDateTime findSealedUntil(Long sensorId);
+
+    /**
+     * Stores the measurements of a sensor in [start, end) as a new sealed range, within the caller's
+     * transaction. Nothing becomes visible if the transaction rolls back.
+     */
+    void seal(Long sensorId, LocalDateTime start, LocalDateTime end, MeasurementColumns rows);
+
+    /**
+     * Removes everything stored for a sensor once the caller's transaction commits.
+     */
+    void deleteBySensorId(Long sensorId);
+
+    /**
+     * Forward-only cursor over measurements of one sensor. Values are hundredths and timestamps epoch
+     * microseconds (UTC).
+     */
+    interface RowCursor {
+
+        RowCursor EMPTY = new RowCursor() {
+            @Override
+            public boolean next() {
+                return false;
+            }
+
+            @Override
+            public long id() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public long epochMicros() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public int temperature() {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public int humidity() {
+                throw new IllegalStateException();
+            }
+        };
+
+        boolean next();
+
+        long id();
+
+        long epochMicros();
+
+        int temperature();
+
+        int humidity();
+    }
+
+    record ColdMeasurement(long id, long sensorId, long epochMicros, int temperature, int humidity) {
+    }
+}
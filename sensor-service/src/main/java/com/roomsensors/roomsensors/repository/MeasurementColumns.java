@@ -0,0 +1,68 @@
+package com.roomsensors.roomsensors.repository;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive columns of one sensor's measurements, filled by {@link MeasurementRowReader} in
+ * timestamp order. Values are hundredths and timestamps epoch microseconds (UTC), as the row reader
+ * delivers them.
+ */
+public final class MeasurementColumns implements MeasurementRowReader.RowHandler {
+
+    private long[] ids = new long[1024];
+    private long[] epochMicros = new long[1024];
+    private int[] temperatures = new int[1024];
+    private int[] humidities = new int[1024];
+    private int size;
+
+    @Override
+    public void row(long id, long epochMicros, int temperature, int humidity) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            this.epochMicros = Arrays.copyOf(this.epochMicros, size * 2);
+            temperatures = Arrays.copyOf(temperatures, size * 2);
+            humidities = Arrays.copyOf(humidities, size * 2);
+        }
+        ids[size] = id;
+        this.epochMicros[size] = epochMicros;
+        temperatures[size] = temperature;
+        humidities[size] = humidity;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public long epochMicros(int index) {
+        return epochMicros[index];
+    }
+
+    public int temperature(int index) {
+        return temperatures[index];
+    }
+
+    public int humidity(int index) {
+        return humidities[index];
+    }
+
+    public long minId() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, ids[i]);
+        }
+        return min;
+    }
+
+    public long maxId() {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, ids[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,25 @@
+package com.roomsensors.roomsensors.repository;
+
+import com.roomsensors.roomsensors.model.MeasurementCompaction;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MeasurementCompactionRepository extends JpaRepository<MeasurementCompaction, Long> {
+    
+    // Serializes compaction of a sensor across service instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM MeasurementCompaction c WHERE c.sensorId = :sensorId")
+    Optional<MeasurementCompaction> findForUpdate(@Param("sensorId") Long sensorId);
+    
+    @Modifying
+    @Query("DELETE FROM MeasurementCompaction c WHERE c.sensorId = :sensorId")
+    void deleteBySensorId(@Param("sensorId") Long sensorId);
+}
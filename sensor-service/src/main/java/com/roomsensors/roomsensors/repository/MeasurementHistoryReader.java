@@ -0,0 +1,81 @@
+package com.roomsensors.roomsensors.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Reads the full history of a sensor for bulk paths (export, statistics): the rows of the measurements table
+ * merged with those moved to the {@link MeasurementColdStore}, in timestamp and id order.
+ */
+@Repository
+public class MeasurementHistoryReader {
+
+    @Autowired
+    private MeasurementRowReader measurementRowReader;
+
+    @Autowired
+    private MeasurementColdStore coldStore;
+
+    /**
+     * Calls {@code handler} for every measurement of a sensor in [start, end], ordered by timestamp and id.
+     */
+    public void forEachRow(Long sensorId, LocalDateTime start, LocalDateTime end,
+                           MeasurementRowReader.RowHandler handler) {
+        if (!coldStore.isEnabled()) {
+            measurementRowReader.forEachRow(sensorId, start, end, handler);
+            return;
+        }
+        MergingHandler merging = new MergingHandler(handler, () -> coldStore.open(sensorId, start, end));
+        measurementRowReader.forEachRow(sensorId, start, end, merging);
+        merging.finish();
+    }
+
+    /**
+     * Interleaves cold rows with the table rows passed to it. The cold store is opened once the table query
+     * runs, so a range sealed in between is seen in both and its rows are passed on once.
+     */
+    private static final class MergingHandler implements MeasurementRowReader.RowHandler {
+
+        private final MeasurementRowReader.RowHandler handler;
+        private final Supplier<MeasurementColdStore.RowCursor> opener;
+        private MeasurementColdStore.RowCursor cold;
+        private boolean hasCold;
+
+        MergingHandler(MeasurementRowReader.RowHandler handler, Supplier<MeasurementColdStore.RowCursor> opener) {
+            this.handler = handler;
+            this.opener = opener;
+        }
+
+        @Override
+        public void row(long id, long epochMicros, int temperature, int humidity) {
+            open();
+            while (hasCold && (cold.epochMicros() < epochMicros
+                    || cold.epochMicros() == epochMicros && cold.id() < id)) {
+                handler.row(cold.id(), cold.epochMicros(), cold.temperature(), cold.humidity());
+                hasCold = cold.next();
+            }
+            if (hasCold && cold.epochMicros() == epochMicros && cold.id() == id) {
+                hasCold = cold.next();
+            }
+            handler.row(id, epochMicros, temperature, humidity);
+        }
+
+        void finish() {
+            open();
+            while (hasCold) {
+                handler.row(cold.id(), cold.epochMicros(), cold.temperature(), cold.humidity());
+                hasCold = cold.next();
+            }
+        }
+
+        private void open() {
+            if (cold == null) {
+                cold = opener.get();
+                hasCold = cold.next();
+            }
+        }
+    }
+}
@@ -2,14 +2,23 @@ package com.roomsensors.roomsensors.repository;
 
 import com.roomsensors.roomsensors.model.Measurement;
 import com.roomsensors.roomsensors.model.Sensor;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface MeasurementRepository extends JpaRepository<Measurement, Long> {
@@ -29,5 +38,101 @@ public interface MeasurementRepository extends JpaRepository<Measurement, Long>
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
     );
+    
+    @Query("SELECT COUNT(m) AS sampleCount, SUM(m.temperature) AS temperatureSum, "
+        + "MIN(m.temperature) AS temperatureMin, MAX(m.temperature) AS temperatureMax, "
+        + "SUM(m.humidity) AS humiditySum, MIN(m.humidity) AS humidityMin, MAX(m.humidity) AS humidityMax "
+        + "FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp >= :start AND m.timestamp < :end")
+    MeasurementAggregate aggregateBySensorIdAndTimestampRange(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    @Query("SELECT COUNT(m) AS sampleCount, SUM(m.temperature) AS temperatureSum, "
+        + "MIN(m.temperature) AS temperatureMin, MAX(m.temperature) AS temperatureMax, "
+        + "SUM(m.humidity) AS humiditySum, MIN(m.humidity) AS humidityMin, MAX(m.humidity) AS humidityMax "
+        + "FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp BETWEEN :start AND :end")
+    MeasurementAggregate aggregateBySensorIdAndTimestampBetween(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    @Query("SELECT m.timestamp, m.temperature, m.humidity FROM Measurement m WHERE m.sensor.id = :sensorId")
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamValuesBySensorId(@Param("sensorId") Long sensorId);
+    
+    @Query("SELECT m FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp BETWEEN :start AND :end "
+        + "ORDER BY m.timestamp, m.id")
+    List<Measurement> findPageBySensorId(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        Pageable pageable
+    );
+    
+    @Query("SELECT m FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp BETWEEN :start AND :end "
+        + "AND m.timestamp >= :afterTimestamp AND (m.timestamp > :afterTimestamp OR m.id > :afterId) "
+        + "ORDER BY m.timestamp, m.id")
+    List<Measurement> findPageBySensorIdAfter(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("afterTimestamp") LocalDateTime afterTimestamp,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT m FROM Measurement m WHERE m.timestamp BETWEEN :start AND :end "
+        + "ORDER BY m.sensor.id, m.timestamp, m.id")
+    List<Measurement> findPage(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        Pageable pageable
+    );
+    
+    @Query("SELECT m FROM Measurement m WHERE m.timestamp BETWEEN :start AND :end "
+        + "AND m.sensor.id >= :afterSensorId AND (m.sensor.id > :afterSensorId "
+        + "OR m.timestamp > :afterTimestamp OR (m.timestamp = :afterTimestamp AND m.id > :afterId)) "
+        + "ORDER BY m.sensor.id, m.timestamp, m.id")
+    List<Measurement> findPageAfter(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("afterSensorId") Long afterSensorId,
+        @Param("afterTimestamp") LocalDateTime afterTimestamp,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT m.id, m.timestamp, m.temperature, m.humidity FROM Measurement m WHERE m.sensor.id = :sensorId "
+        + "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Object[]> findLatestValuesBySensorId(@Param("sensorId") Long sensorId, Pageable pageable);
+    
+    // The timestamp predicate lets a time-partitioned table prune the delete to a single partition
+    @Modifying
+    @Query("DELETE FROM Measurement m WHERE m.id = :id AND m.timestamp = :timestamp")
+    int deleteByIdAndTimestamp(@Param("id") Long id, @Param("timestamp") LocalDateTime timestamp);
+    
+    @Query("SELECT DISTINCT m.sensor.id FROM Measurement m")
+    List<Long> findDistinctSensorIds();
+    
+    @Query("SELECT MIN(m.timestamp) FROM Measurement m WHERE m.sensor.id = :sensorId")
+    LocalDateTime findFirstTimestampBySensorId(@Param("sensorId") Long sensorId);
+    
+    @Query("SELECT MIN(m.timestamp) FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp >= :from")
+    LocalDateTime findFirstTimestampBySensorIdFrom(@Param("sensorId") Long sensorId, @Param("from") LocalDateTime from);
+    
+    @Modifying
+    @Query("DELETE FROM Measurement m WHERE m.sensor.id = :sensorId AND m.timestamp >= :start AND m.timestamp < :end "
+        + "AND m.id IN :ids")
+    int deleteBySensorIdAndTimestampRangeAndIdIn(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("ids") Collection<Long> ids
+    );
 }
-
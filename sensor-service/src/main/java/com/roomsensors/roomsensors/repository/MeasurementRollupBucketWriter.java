@@ -0,0 +1,88 @@
+package com.roomsensors.roomsensors.repository;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Creates empty rollup buckets with one batched upsert on the connection of the surrounding transaction, so
+ * ingest never needs a second connection. The id comes from {@code measurement_rollups_seq} like the ids
+ * Hibernate assigns; a value taken here is the top of a pooled block no other id is handed out from.
+ */
+@Repository
+public class MeasurementRollupBucketWriter {
+
+    private static final String H2_SQL = "MERGE INTO measurement_rollups r USING (VALUES (CAST(? AS BIGINT), "
+        + "CAST(? AS VARCHAR(16)), CAST(? AS TIMESTAMP(6)))) AS b(sensor_id, resolution, bucket_start) "
+        + "ON r.sensor_id = b.sensor_id AND r.resolution = b.resolution AND r.bucket_start = b.bucket_start "
+        + "WHEN NOT MATCHED THEN INSERT (id, sensor_id, resolution, bucket_start, sample_count, temperature_sum, "
+        + "humidity_sum) VALUES (NEXT VALUE FOR measurement_rollups_seq, b.sensor_id, b.resolution, b.bucket_start, "
+        + "0, 0, 0)";
+
+    private static final String POSTGRESQL_SQL = "INSERT INTO measurement_rollups (id, sensor_id, resolution, "
+        + "bucket_start, sample_count, temperature_sum, humidity_sum) "
+        + "VALUES (nextval('measurement_rollups_seq'), ?, ?, ?, 0, 0, 0) "
+        + "ON CONFLICT (sensor_id, resolution, bucket_start) DO NOTHING";
+
+    // H2 reports a bucket inserted by a transaction that committed while the merge waited as a duplicate;
+    // the statement fails on its own there, and merging again finds the committed bucket
+    private static final int MAX_ATTEMPTS = 3;
+
+    public record Bucket(Long sensorId, BucketResolution resolution, LocalDateTime bucketStart) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String sql;
+
+    @Autowired
+    public MeasurementRollupBucketWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Creates the buckets that do not exist yet, in the order given, within the caller's transaction.
+     */
+    public void createMissing(List<Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        String statement = sql();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(statement, buckets, buckets.size(), (ps, bucket) -> {
+                    ps.setLong(1, bucket.sensorId());
+                    ps.setString(2, bucket.resolution().name());
+                    ps.setTimestamp(3, Timestamp.valueOf(bucket.bucketStart()));
+                });
+                return;
+            } catch (DuplicateKeyException e) {
+                if (!H2_SQL.equals(statement) || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String sql() {
+        if (sql == null) {
+            String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            if ("H2".equals(database)) {
+                sql = H2_SQL;
+            } else if ("PostgreSQL".equals(database)) {
+                sql = POSTGRESQL_SQL;
+            } else {
+                throw new RuntimeException("Rollup buckets cannot be created on " + database);
+            }
+        }
+        return sql;
+    }
+}
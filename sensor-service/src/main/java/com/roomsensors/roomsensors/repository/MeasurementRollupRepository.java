@@ -0,0 +1,120 @@
+package com.roomsensors.roomsensors.repository;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.model.MeasurementRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MeasurementRollupRepository extends JpaRepository<MeasurementRollup, Long> {
+    Optional<MeasurementRollup> findBySensorIdAndResolutionAndBucketStart(
+        Long sensorId, BucketResolution resolution, LocalDateTime bucketStart);
+    
+    boolean existsBySensorId(Long sensorId);
+    
+    @Modifying
+    @Query("DELETE FROM MeasurementRollup r WHERE r.sensorId = :sensorId")
+    void deleteBySensorId(@Param("sensorId") Long sensorId);
+    
+    @Modifying
+    @Query("DELETE FROM MeasurementRollup r WHERE r.bucketStart < :cutoff")
+    int deleteByBucketStartBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Query("SELECT r.resolution, r.bucketStart FROM MeasurementRollup r WHERE r.sensorId = :sensorId AND r.bucketStart IN :bucketStarts")
+    List<Object[]> findExistingBuckets(
+        @Param("sensorId") Long sensorId,
+        @Param("bucketStarts") Collection<LocalDateTime> bucketStarts
+    );
+    
+    @Modifying
+    @Query("UPDATE MeasurementRollup r SET r.sampleCount = r.sampleCount + :sampleCount, "
+        + "r.temperatureSum = r.temperatureSum + :temperatureSum, "
+        + "r.temperatureMin = CASE WHEN r.temperatureMin IS NULL OR r.temperatureMin > :temperatureMin THEN :temperatureMin ELSE r.temperatureMin END, "
+        + "r.temperatureMax = CASE WHEN r.temperatureMax IS NULL OR r.temperatureMax < :temperatureMax THEN :temperatureMax ELSE r.temperatureMax END, "
+        + "r.humiditySum = r.humiditySum + :humiditySum, "
+        + "r.humidityMin = CASE WHEN r.humidityMin IS NULL OR r.humidityMin > :humidityMin THEN :humidityMin ELSE r.humidityMin END, "
+        + "r.humidityMax = CASE WHEN r.humidityMax IS NULL OR r.humidityMax < :humidityMax THEN :humidityMax ELSE r.humidityMax END "
+        + "WHERE r.sensorId = :sensorId AND r.resolution = :resolution AND r.bucketStart = :bucketStart")
+    int addToBucket(
+        @Param("sensorId") Long sensorId,
+        @Param("resolution") BucketResolution resolution,
+        @Param("bucketStart") LocalDateTime bucketStart,
+        @Param("sampleCount") Long sampleCount,
+        @Param("temperatureSum") BigDecimal temperatureSum,
+        @Param("temperatureMin") BigDecimal temperatureMin,
+        @Param("temperatureMax") BigDecimal temperatureMax,
+        @Param("humiditySum") BigDecimal humiditySum,
+        @Param("humidityMin") BigDecimal humidityMin,
+        @Param("humidityMax") BigDecimal humidityMax
+    );
+    
+    @Query("SELECT SUM(r.sampleCount) AS sampleCount, SUM(r.temperatureSum) AS temperatureSum, "
+        + "MIN(r.temperatureMin) AS temperatureMin, MAX(r.temperatureMax) AS temperatureMax, "
+        + "SUM(r.humiditySum) AS humiditySum, MIN(r.humidityMin) AS humidityMin, MAX(r.humidityMax) AS humidityMax "
+        + "FROM MeasurementRollup r WHERE r.sensorId = :sensorId AND r.resolution = :resolution "
+        + "AND r.bucketStart >= :start AND r.bucketStart < :end")
+    MeasurementAggregate aggregateBuckets(
+        @Param("sensorId") Long sensorId,
+        @Param("resolution") BucketResolution resolution,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    // Rollups standing in for compacted raw measurements: buckets of the resolution a sensor was compacted
+    // with, before its compaction checkpoint
+    String COMPACTED = "SELECT r FROM MeasurementRollup r, MeasurementCompaction c WHERE c.sensorId = r.sensorId "
+        + "AND r.resolution = c.resolution AND r.bucketStart < c.compactedUntil AND r.sampleCount > 0 ";
+    
+    @Query(COMPACTED + "ORDER BY r.sensorId, r.bucketStart")
+    List<MeasurementRollup> findAllCompacted();
+    
+    @Query(COMPACTED + "AND r.sensorId = :sensorId ORDER BY r.bucketStart")
+    List<MeasurementRollup> findCompactedBySensorId(@Param("sensorId") Long sensorId);
+    
+    @Query(COMPACTED + "AND r.sensorId = :sensorId AND r.bucketStart BETWEEN :start AND :end ORDER BY r.bucketStart")
+    List<MeasurementRollup> findCompactedBySensorId(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        Pageable pageable
+    );
+    
+    // A compacted bucket sorts before raw measurements of the same timestamp (as if its id were 0)
+    @Query(COMPACTED + "AND r.sensorId = :sensorId AND r.bucketStart BETWEEN :start AND :end "
+        + "AND r.bucketStart > :afterTimestamp ORDER BY r.bucketStart")
+    List<MeasurementRollup> findCompactedBySensorIdAfter(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("afterTimestamp") LocalDateTime afterTimestamp,
+        Pageable pageable
+    );
+    
+    @Query(COMPACTED + "AND r.bucketStart BETWEEN :start AND :end ORDER BY r.sensorId, r.bucketStart")
+    List<MeasurementRollup> findCompacted(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        Pageable pageable
+    );
+    
+    @Query(COMPACTED + "AND r.bucketStart BETWEEN :start AND :end "
+        + "AND r.sensorId >= :afterSensorId AND (r.sensorId > :afterSensorId OR r.bucketStart > :afterTimestamp) "
+        + "ORDER BY r.sensorId, r.bucketStart")
+    List<MeasurementRollup> findCompactedAfter(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("afterSensorId") Long afterSensorId,
+        @Param("afterTimestamp") LocalDateTime afterTimestamp,
+        Pageable pageable
+    );
+}
@@ -0,0 +1,100 @@
+package com.roomsensors.roomsensors.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads measurement rows for bulk paths (export, statistics) straight from JDBC into primitives. The database
+ * converts the timestamp to epoch microseconds (UTC) and the DECIMAL(5,2) values to hundredths, and rows are
+ * handed to a callback one at a time, so no entity, {@code Object[]}, boxed ID, {@code LocalDateTime} or
+ * {@code BigDecimal} is created per row. Runs on the connection of the surrounding transaction.
+ */
+@Repository
+public class MeasurementRowReader {
+
+    public static final long MICROS_PER_SECOND = 1_000_000L;
+
+    // EXTRACT(EPOCH) of a TIMESTAMP without time zone counts from 1970-01-01 00:00 as if it were UTC on
+    // both H2 and PostgreSQL, matching how LocalDateTime values are treated elsewhere
+    private static final String RANGE_SQL = "SELECT id, CAST(EXTRACT(EPOCH FROM timestamp) * 1000000 AS BIGINT), "
+        + "CAST(temperature * 100 AS INTEGER), CAST(humidity * 100 AS INTEGER) FROM measurements "
+        + "WHERE sensor_id = ? AND timestamp BETWEEN ? AND ? ORDER BY timestamp, id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(long id, long epochMicros, int temperature, int humidity);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer successTimer;
+    private final DistributionSummary rowsSummary;
+
+    @Autowired
+    public MeasurementRowReader(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.meterRegistry = meterRegistry;
+        // Same meters as Spring Data repository calls, so the bulk reads show up next to them
+        this.successTimer = invocationTimer("SUCCESS", "None");
+        this.rowsSummary = DistributionSummary.builder("repository.rows")
+            .description("Rows returned or changed by a repository method")
+            .baseUnit("rows")
+            .tag("repository", "MeasurementRowReader")
+            .tag("method", "forEachRow")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Calls {@code handler} for every measurement of a sensor in [start, end], ordered by timestamp and id.
+     */
+    public void forEachRow(Long sensorId, LocalDateTime start, LocalDateTime end, RowHandler handler) {
+        long startNanos = System.nanoTime();
+        long[] rows = new long[1];
+        try {
+            jdbcTemplate.query(RANGE_SQL, (ResultSet rs) -> {
+                handler.row(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4));
+                rows[0]++;
+            }, sensorId, start, end);
+            successTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            invocationTimer("ERROR", e.getClass().getSimpleName())
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            rowsSummary.record(rows[0]);
+        }
+    }
+
+    private Timer invocationTimer(String state, String exception) {
+        return Timer.builder("spring.data.repository.invocations")
+            .description("Duration of repository invocations")
+            .tag("repository", "MeasurementRowReader")
+            .tag("method", "forEachRow")
+            .tag("state", state)
+            .tag("exception", exception)
+            .register(meterRegistry);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+            (int) Math.floorMod(epochMicros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    // Measurement timestamps are TIMESTAMP(6), so microseconds are the finest precision they carry
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1000;
+    }
+}
@@ -0,0 +1,516 @@
+package com.roomsensors.roomsensors.repository;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Immutable columnar file holding the measurements of one sensor, ordered by timestamp and id. Rows are split
+ * into blocks, and each block stores its columns one after the other. A range aggregate adds up whole blocks
+ * from the block index and decodes only the timestamp, temperature and humidity columns of the blocks at its
+ * edges. Read in place from a (memory-mapped) buffer. Big-endian layout:
+ * <pre>
+ * header   4 bytes  magic "RSS" + version 1
+ *          4 bytes  int32 row count
+ *          4 bytes  int32 block count
+ *          4 bytes  int32 rows per block
+ *          8 bytes  int64 sensor ID
+ * index   68 bytes  per block: int32 rows; int32 file offsets of the timestamp, id, temperature and humidity
+ *                   columns; int64 first and last timestamp; int64 temperature sum, int32 min, int32 max;
+ *                   int64 humidity sum, int32 min, int32 max
+ * columns           per block, zig-zag LEB128 varints:
+ *                   timestamps   epoch microseconds (UTC): the first, then deltas of deltas, which are 0 for
+ *                                evenly spaced readings
+ *                   ids          the first, then deltas
+ *                   temperature  hundredths: the first, then deltas
+ *                   humidity     hundredths: the first, then deltas
+ * </pre>
+ * Values are DECIMAL(5,2) in the measurements table, so scaled to hundredths they are exact integers and
+ * small deltas between consecutive readings encode in a single byte.
+ */
+public final class MeasurementSegmentFile {
+
+    public static final int HEADER_SIZE = 24;
+    public static final int INDEX_ENTRY_SIZE = 68;
+
+    private static final int MAGIC = 'R' << 24 | 'S' << 16 | 'S' << 8 | 1;
+
+    // Offsets within an index entry
+    private static final int ROWS = 0;
+    private static final int TIMESTAMP_COLUMN = 4;
+    private static final int ID_COLUMN = 8;
+    private static final int TEMPERATURE_COLUMN = 12;
+    private static final int HUMIDITY_COLUMN = 16;
+    private static final int FIRST_TIMESTAMP = 20;
+    private static final int LAST_TIMESTAMP = 28;
+    private static final int TEMPERATURE_SUM = 36;
+    private static final int TEMPERATURE_MIN = 44;
+    private static final int TEMPERATURE_MAX = 48;
+    private static final int HUMIDITY_SUM = 52;
+    private static final int HUMIDITY_MIN = 60;
+    private static final int HUMIDITY_MAX = 64;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int blockCount;
+    private final int blockSize;
+    private final long sensorId;
+
+    private MeasurementSegmentFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.rowCount = buffer.getInt(4);
+        this.blockCount = buffer.getInt(8);
+        this.blockSize = buffer.getInt(12);
+        this.sensorId = buffer.getLong(16);
+    }
+
+    public static MeasurementSegmentFile read(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new RuntimeException("Not a version 1 measurement segment");
+        }
+        MeasurementSegmentFile file = new MeasurementSegmentFile(buffer);
+        if (file.blockCount < 0 || buffer.capacity() < HEADER_SIZE + (long) file.blockCount * INDEX_ENTRY_SIZE) {
+            throw new RuntimeException("Measurement segment is shorter than its block index");
+        }
+        if (!file.columnsFit()) {
+            throw new RuntimeException("Measurement segment is shorter than its columns");
+        }
+        return file;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public long sensorId() {
+        return sensorId;
+    }
+
+    /**
+     * Encodes the rows, which must be ordered by timestamp and id, in blocks of {@code blockSize} rows.
+     */
+    public static byte[] encode(long sensorId, MeasurementColumns rows, int blockSize) {
+        int count = rows.size();
+        int blocks = (count + blockSize - 1) / blockSize;
+        long dataStart = HEADER_SIZE + (long) blocks * INDEX_ENTRY_SIZE;
+        ByteBuffer index = ByteBuffer.allocate(blocks * INDEX_ENTRY_SIZE);
+        VarintWriter data = new VarintWriter(count * 4 + 64);
+
+        for (int block = 0; block < blocks; block++) {
+            int from = block * blockSize;
+            int to = Math.min(from + blockSize, count);
+
+            long timestampColumn = dataStart + data.size();
+            long previous = 0;
+            long previousDelta = 0;
+            for (int i = from; i < to; i++) {
+                long timestamp = rows.epochMicros(i);
+                if (i == from) {
+                    data.write(timestamp);
+                } else {
+                    long delta = timestamp - previous;
+                    data.write(delta - previousDelta);
+                    previousDelta = delta;
+                }
+                previous = timestamp;
+            }
+
+            long idColumn = dataStart + data.size();
+            previous = 0;
+            for (int i = from; i < to; i++) {
+                data.write(rows.id(i) - previous);
+                previous = rows.id(i);
+            }
+
+            long temperatureColumn = dataStart + data.size();
+            long temperatureSum = 0;
+            int temperatureMin = Integer.MAX_VALUE;
+            int temperatureMax = Integer.MIN_VALUE;
+            int previousValue = 0;
+            for (int i = from; i < to; i++) {
+                int temperature = rows.temperature(i);
+                data.write((long) temperature - previousValue);
+                previousValue = temperature;
+                temperatureSum += temperature;
+                temperatureMin = Math.min(temperatureMin, temperature);
+                temperatureMax = Math.max(temperatureMax, temperature);
+            }
+
+            long humidityColumn = dataStart + data.size();
+            long humiditySum = 0;
+            int humidityMin = Integer.MAX_VALUE;
+            int humidityMax = Integer.MIN_VALUE;
+            previousValue = 0;
+            for (int i = from; i < to; i++) {
+                int humidity = rows.humidity(i);
+                data.write((long) humidity - previousValue);
+                previousValue = humidity;
+                humiditySum += humidity;
+                humidityMin = Math.min(humidityMin, humidity);
+                humidityMax = Math.max(humidityMax, humidity);
+            }
+
+            if (dataStart + data.size() > Integer.MAX_VALUE) {
+                throw new RuntimeException("Measurement segment would exceed 2 GB, use a shorter segment resolution");
+            }
+            index.putInt(to - from)
+                .putInt((int) timestampColumn).putInt((int) idColumn)
+                .putInt((int) temperatureColumn).putInt((int) humidityColumn)
+                .putLong(rows.epochMicros(from)).putLong(rows.epochMicros(to - 1))
+                .putLong(temperatureSum).putInt(temperatureMin).putInt(temperatureMax)
+                .putLong(humiditySum).putInt(humidityMin).putInt(humidityMax);
+        }
+
+        ByteBuffer file = ByteBuffer.allocate((int) dataStart + data.size());
+        file.putInt(MAGIC).putInt(count).putInt(blocks).putInt(blockSize).putLong(sensorId);
+        file.put(index.array());
+        file.put(data.bytes(), 0, data.size());
+        return file.array();
+    }
+
+    /**
+     * Rows in [fromMicros, toMicros], ordered by timestamp and id.
+     */
+    public MeasurementColdStore.RowCursor cursor(long fromMicros, long toMicros) {
+        return new BlockCursor(fromMicros, toMicros);
+    }
+
+    /**
+     * Adds the rows in [fromMicros, toMicros] to {@code totals}.
+     */
+    public void aggregate(long fromMicros, long toMicros, Totals totals) {
+        long[] timestamps = null;
+        int[] temperatures = null;
+        int[] humidities = null;
+        for (int block = firstBlock(fromMicros); block < blockCount; block++) {
+            int entry = entry(block);
+            long first = buffer.getLong(entry + FIRST_TIMESTAMP);
+            long last = buffer.getLong(entry + LAST_TIMESTAMP);
+            if (first > toMicros) {
+                break;
+            }
+            int rows = buffer.getInt(entry + ROWS);
+            if (first >= fromMicros && last <= toMicros) {
+                totals.add(rows, buffer.getLong(entry + TEMPERATURE_SUM),
+                    buffer.getInt(entry + TEMPERATURE_MIN), buffer.getInt(entry + TEMPERATURE_MAX),
+                    buffer.getLong(entry + HUMIDITY_SUM),
+                    buffer.getInt(entry + HUMIDITY_MIN), buffer.getInt(entry + HUMIDITY_MAX));
+                continue;
+            }
+            if (timestamps == null) {
+                timestamps = new long[blockSize];
+                temperatures = new int[blockSize];
+                humidities = new int[blockSize];
+            }
+            decodeTimestamps(buffer.getInt(entry + TIMESTAMP_COLUMN), rows, timestamps);
+            decodeValues(buffer.getInt(entry + TEMPERATURE_COLUMN), rows, temperatures);
+            decodeValues(buffer.getInt(entry + HUMIDITY_COLUMN), rows, humidities);
+            for (int i = 0; i < rows; i++) {
+                if (timestamps[i] >= fromMicros && timestamps[i] <= toMicros) {
+                    totals.add(temperatures[i], humidities[i]);
+                }
+            }
+        }
+    }
+
+    public Optional<MeasurementColdStore.ColdMeasurement> find(long id) {
+        long[] ids = new long[blockSize];
+        for (int block = 0; block < blockCount; block++) {
+            int entry = entry(block);
+            int rows = buffer.getInt(entry + ROWS);
+            decodeIds(buffer.getInt(entry + ID_COLUMN), rows, ids);
+            for (int i = 0; i < rows; i++) {
+                if (ids[i] == id) {
+                    long[] timestamps = new long[rows];
+                    int[] temperatures = new int[rows];
+                    int[] humidities = new int[rows];
+                    decodeTimestamps(buffer.getInt(entry + TIMESTAMP_COLUMN), rows, timestamps);
+                    decodeValues(buffer.getInt(entry + TEMPERATURE_COLUMN), rows, temperatures);
+                    decodeValues(buffer.getInt(entry + HUMIDITY_COLUMN), rows, humidities);
+                    return Optional.of(new MeasurementColdStore.ColdMeasurement(id, sensorId, timestamps[i],
+                        temperatures[i], humidities[i]));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Every column starts within the buffer, and the last one, which ends the file, is complete
+    private boolean columnsFit() {
+        int capacity = buffer.capacity();
+        for (int block = 0; block < blockCount; block++) {
+            int entry = entry(block);
+            int rows = buffer.getInt(entry + ROWS);
+            if (rows < 1 || rows > blockSize) {
+                return false;
+            }
+            for (int column = TIMESTAMP_COLUMN; column <= HUMIDITY_COLUMN; column += 4) {
+                int offset = buffer.getInt(entry + column);
+                if (offset < HEADER_SIZE || offset >= capacity) {
+                    return false;
+                }
+            }
+        }
+        if (blockCount == 0) {
+            return true;
+        }
+        int entry = entry(blockCount - 1);
+        int position = buffer.getInt(entry + HUMIDITY_COLUMN);
+        for (int i = buffer.getInt(entry + ROWS); i > 0; i--) {
+            do {
+                if (position >= capacity) {
+                    return false;
+                }
+            } while (buffer.get(position++) < 0);
+        }
+        return true;
+    }
+
+    private int entry(int block) {
+        return HEADER_SIZE + block * INDEX_ENTRY_SIZE;
+    }
+
+    // First block whose last timestamp is not before fromMicros
+    private int firstBlock(long fromMicros) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(entry(middle) + LAST_TIMESTAMP) < fromMicros) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void decodeTimestamps(int offset, int rows, long[] out) {
+        VarintReader reader = new VarintReader(buffer, offset);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < rows; i++) {
+            if (i == 0) {
+                previous = reader.read();
+            } else {
+                previousDelta += reader.read();
+                previous += previousDelta;
+            }
+            out[i] = previous;
+        }
+    }
+
+    private void decodeIds(int offset, int rows, long[] out) {
+        VarintReader reader = new VarintReader(buffer, offset);
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += reader.read();
+            out[i] = previous;
+        }
+    }
+
+    private void decodeValues(int offset, int rows, int[] out) {
+        VarintReader reader = new VarintReader(buffer, offset);
+        int previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += (int) reader.read();
+            out[i] = previous;
+        }
+    }
+
+    /**
+     * Decodes one block at a time into reused column arrays.
+     */
+    private final class BlockCursor implements MeasurementColdStore.RowCursor {
+
+        private final long fromMicros;
+        private final long toMicros;
+        private final long[] ids = new long[blockSize];
+        private final long[] timestamps = new long[blockSize];
+        private final int[] temperatures = new int[blockSize];
+        private final int[] humidities = new int[blockSize];
+        private int block;
+        private int rows;
+        private int row = -1;
+        private boolean done;
+
+        BlockCursor(long fromMicros, long toMicros) {
+            this.fromMicros = fromMicros;
+            this.toMicros = toMicros;
+            this.block = firstBlock(fromMicros) - 1;
+        }
+
+        @Override
+        public boolean next() {
+            while (!done) {
+                if (++row >= rows && !nextBlock()) {
+                    done = true;
+                    return false;
+                }
+                if (timestamps[row] > toMicros) {
+                    done = true;
+                    return false;
+                }
+                if (timestamps[row] >= fromMicros) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean nextBlock() {
+            if (++block >= blockCount) {
+                return false;
+            }
+            int entry = entry(block);
+            if (buffer.getLong(entry + FIRST_TIMESTAMP) > toMicros) {
+                return false;
+            }
+            rows = buffer.getInt(entry + ROWS);
+            decodeTimestamps(buffer.getInt(entry + TIMESTAMP_COLUMN), rows, timestamps);
+            decodeIds(buffer.getInt(entry + ID_COLUMN), rows, ids);
+            decodeValues(buffer.getInt(entry + TEMPERATURE_COLUMN), rows, temperatures);
+            decodeValues(buffer.getInt(entry + HUMIDITY_COLUMN), rows, humidities);
+            row = 0;
+            return true;
+        }
+
+        @Override
+        public long id() {
+            return ids[row];
+        }
+
+        @Override
+        public long epochMicros() {
+            return timestamps[row];
+        }
+
+        @Override
+        public int temperature() {
+            return temperatures[row];
+        }
+
+        @Override
+        public int humidity() {
+            return humidities[row];
+        }
+    }
+
+    /**
+     * Count, sums, minimums and maximums in hundredths, exposed as the aggregate of the measurements table.
+     */
+    public static final class Totals implements MeasurementAggregate {
+
+        private long count;
+        private long temperatureSum;
+        private int temperatureMin = Integer.MAX_VALUE;
+        private int temperatureMax = Integer.MIN_VALUE;
+        private long humiditySum;
+        private int humidityMin = Integer.MAX_VALUE;
+        private int humidityMax = Integer.MIN_VALUE;
+
+        void add(int temperature, int humidity) {
+            add(1, temperature, temperature, temperature, humidity, humidity, humidity);
+        }
+
+        void add(long rows, long temperatureSum, int temperatureMin, int temperatureMax,
+                 long humiditySum, int humidityMin, int humidityMax) {
+            count += rows;
+            this.temperatureSum += temperatureSum;
+            this.temperatureMin = Math.min(this.temperatureMin, temperatureMin);
+            this.temperatureMax = Math.max(this.temperatureMax, temperatureMax);
+            this.humiditySum += humiditySum;
+            this.humidityMin = Math.min(this.humidityMin, humidityMin);
+            this.humidityMax = Math.max(this.humidityMax, humidityMax);
+        }
+
+        @Override
+        public Long getSampleCount() {
+            return count;
+        }
+
+        @Override
+        public BigDecimal getTemperatureSum() {
+            return BigDecimal.valueOf(temperatureSum, 2);
+        }
+
+        @Override
+        public BigDecimal getTemperatureMin() {
+            return count > 0 ? BigDecimal.valueOf(temperatureMin, 2) : null;
+        }
+
+        @Override
+        public BigDecimal getTemperatureMax() {
+            return count > 0 ? BigDecimal.valueOf(temperatureMax, 2) : null;
+        }
+
+        @Override
+        public BigDecimal getHumiditySum() {
+            return BigDecimal.valueOf(humiditySum, 2);
+        }
+
+        @Override
+        public BigDecimal getHumidityMin() {
+            return count > 0 ? BigDecimal.valueOf(humidityMin, 2) : null;
+        }
+
+        @Override
+        public BigDecimal getHumidityMax() {
+            return count > 0 ? BigDecimal.valueOf(humidityMax, 2) : null;
+        }
+    }
+
+    private static final class VarintWriter {
+
+        private byte[] bytes;
+        private int size;
+
+        VarintWriter(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void write(long value) {
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 10));
+            }
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[size++] = (byte) (zigzag & 0x7F | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[size++] = (byte) zigzag;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+    }
+
+    private static final class VarintReader {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        VarintReader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long read() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
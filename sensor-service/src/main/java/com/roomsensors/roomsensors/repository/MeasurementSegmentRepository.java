@@ -0,0 +1,43 @@
+package com.roomsensors.roomsensors.repository;
+
+import com.roomsensors.roomsensors.model.MeasurementSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MeasurementSegmentRepository extends JpaRepository<MeasurementSegment, Long> {
+    
+    List<MeasurementSegment> findBySensorIdOrderByRangeStart(Long sensorId);
+    
+    // Segments holding measurements of the inclusive range [start, end]; segment ranges are half-open
+    @Query("SELECT s FROM MeasurementSegment s WHERE s.sensorId = :sensorId AND s.rangeStart <= :end "
+        + "AND s.rangeEnd > :start ORDER BY s.rangeStart")
+    List<MeasurementSegment> findOverlapping(
+        @Param("sensorId") Long sensorId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    
+    @Query("SELECT DISTINCT s.sensorId FROM MeasurementSegment s WHERE s.rangeStart <= :end AND s.rangeEnd > :start "
+        + "ORDER BY s.sensorId")
+    List<Long> findSensorIdsOverlapping(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query("SELECT DISTINCT s.sensorId FROM MeasurementSegment s ORDER BY s.sensorId")
+    List<Long> findDistinctSensorIds();
+    
+    @Query("SELECT s FROM MeasurementSegment s WHERE s.minId <= :id AND s.maxId >= :id")
+    List<MeasurementSegment> findContainingId(@Param("id") Long id);
+    
+    @Query("SELECT MAX(s.rangeEnd) FROM MeasurementSegment s WHERE s.sensorId = :sensorId")
+    LocalDateTime findSealedUntil(@Param("sensorId") Long sensorId);
+    
+    @Modifying
+    @Query("DELETE FROM MeasurementSegment s WHERE s.sensorId = :sensorId")
+    void deleteBySensorId(@Param("sensorId") Long sensorId);
+}
@@ -0,0 +1,275 @@
+package com.roomsensors.roomsensors.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.roomsensors.roomsensors.model.MeasurementSegment;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cold storage in immutable {@link MeasurementSegmentFile}s on local disk, one file per sealed range of a sensor
+ * under {@code <directory>/<sensorId>/<segmentId>.seg}, catalogued in the {@code measurement_segments} table.
+ * Files are written and fsynced before the catalog row commits and are read through memory mappings, so
+ * reads are served from the page cache without copying. Up to {@code max-mapped-segments} mappings are kept
+ * open.
+ */
+@Repository
+@ConditionalOnProperty(name = "measurements.cold-storage.engine", havingValue = "segment-files")
+public class SegmentFileMeasurementColdStore implements MeasurementColdStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentFileMeasurementColdStore.class);
+
+    @Autowired
+    private MeasurementSegmentRepository segmentRepository;
+
+    @Value("${measurements.cold-storage.directory:./data/segments}")
+    private String directoryName;
+
+    @Value("${measurements.cold-storage.block-size:1024}")
+    private int blockSize;
+
+    @Value("${measurements.cold-storage.max-mapped-segments:1024}")
+    private int maxMappedSegments;
+
+    private Path directory;
+    private Cache<Long, MeasurementSegmentFile> mappedSegments;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Path.of(directoryName).toAbsolutePath();
+        Files.createDirectories(directory);
+        // Evicted mappings are released once no cursor refers to them any more
+        mappedSegments = Caffeine.newBuilder()
+            .maximumSize(maxMappedSegments)
+            .build();
+        log.info("Measurement segments are stored in {}", directory);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public RowCursor open(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        List<MeasurementSegment> segments = segmentRepository.findOverlapping(sensorId, start, end);
+        if (segments.isEmpty()) {
+            return RowCursor.EMPTY;
+        }
+        return new SegmentsCursor(segments, MeasurementRowReader.toEpochMicros(start),
+            MeasurementRowReader.toEpochMicros(end));
+    }
+
+    @Override
+    public RowCursor open(Long sensorId) {
+        List<MeasurementSegment> segments = segmentRepository.findBySensorIdOrderByRangeStart(sensorId);
+        if (segments.isEmpty()) {
+            return RowCursor.EMPTY;
+        }
+        return new SegmentsCursor(segments, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public MeasurementAggregate aggregate(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        MeasurementSegmentFile.Totals totals = new MeasurementSegmentFile.Totals();
+        long from = MeasurementRowReader.toEpochMicros(start);
+        long to = MeasurementRowReader.toEpochMicros(end);
+        for (MeasurementSegment segment : segmentRepository.findOverlapping(sensorId, start, end)) {
+            file(segment).aggregate(from, to, totals);
+        }
+        return totals;
+    }
+
+    @Override
+    public Optional<ColdMeasurement> findById(Long id) {
+        for (MeasurementSegment segment : segmentRepository.findContainingId(id)) {
+            Optional<ColdMeasurement> measurement = file(segment).find(id);
+            if (measurement.isPresent()) {
+                return measurement;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Long> findSensorIds() {
+        return segmentRepository.findDistinctSensorIds();
+    }
+
+    @Override
+    public List<Long> findSensorIds(LocalDateTime start, LocalDateTime end) {
+        return segmentRepository.findSensorIdsOverlapping(start, end);
+    }
+
+    @Override
+    public LocalDateTime findSealedUntil(Long sensorId) {
+        return segmentRepository.findSealedUntil(sensorId);
+    }
+
+    @Override
+    public void seal(Long sensorId, LocalDateTime start, LocalDateTime end, MeasurementColumns rows) {
+        if (rows.size() == 0) {
+            throw new IllegalArgumentException("A segment needs at least one measurement");
+        }
+        byte[] bytes = MeasurementSegmentFile.encode(sensorId, rows, blockSize);
+
+        MeasurementSegment segment = new MeasurementSegment(sensorId, start, end);
+        segment.setRowCount(rows.size());
+        segment.setMinId(rows.minId());
+        segment.setMaxId(rows.maxId());
+        segment.setSizeBytes((long) bytes.length);
+        // A concurrent seal of the same range fails on the unique range here, before it writes a file
+        segmentRepository.saveAndFlush(segment);
+
+        Path path = path(segment);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteFile(path);
+                }
+            }
+        });
+        write(path, bytes);
+    }
+
+    @Override
+    public void deleteBySensorId(Long sensorId) {
+        List<MeasurementSegment> segments = segmentRepository.findBySensorIdOrderByRangeStart(sensorId);
+        if (segments.isEmpty()) {
+            return;
+        }
+        segmentRepository.deleteBySensorId(sensorId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (MeasurementSegment segment : segments) {
+                    mappedSegments.invalidate(segment.getId());
+                    deleteFile(path(segment));
+                }
+                deleteFile(directory.resolve(sensorId.toString()));
+            }
+        });
+    }
+
+    private Path path(MeasurementSegment segment) {
+        return directory.resolve(segment.getSensorId().toString()).resolve(segment.getId() + ".seg");
+    }
+
+    private MeasurementSegmentFile file(MeasurementSegment segment) {
+        return mappedSegments.get(segment.getId(), id -> map(segment));
+    }
+
+    private MeasurementSegmentFile map(MeasurementSegment segment) {
+        Path path = path(segment);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MeasurementSegmentFile file = MeasurementSegmentFile.read(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if (file.sensorId() != segment.getSensorId() || file.rowCount() != segment.getRowCount()) {
+                throw new RuntimeException("Measurement segment " + path + " does not match its catalog entry");
+            }
+            return file;
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Measurement segment " + path + " is missing", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map measurement segment " + path, e);
+        }
+    }
+
+    private static void write(Path path, byte[] bytes) {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteFile(temporary);
+            throw new UncheckedIOException("Could not write measurement segment " + path, e);
+        }
+    }
+
+    private static void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the segments of a sensor one after the other; their ranges do not overlap.
+     */
+    private final class SegmentsCursor implements RowCursor {
+
+        private final List<MeasurementSegment> segments;
+        private final long fromMicros;
+        private final long toMicros;
+        private int segment = -1;
+        private RowCursor current = RowCursor.EMPTY;
+
+        SegmentsCursor(List<MeasurementSegment> segments, long fromMicros, long toMicros) {
+            this.segments = segments;
+            this.fromMicros = fromMicros;
+            this.toMicros = toMicros;
+        }
+
+        @Override
+        public boolean next() {
+            while (!current.next()) {
+                if (++segment >= segments.size()) {
+                    return false;
+                }
+                current = file(segments.get(segment)).cursor(fromMicros, toMicros);
+            }
+            return true;
+        }
+
+        @Override
+        public long id() {
+            return current.id();
+        }
+
+        @Override
+        public long epochMicros() {
+            return current.epochMicros();
+        }
+
+        @Override
+        public int temperature() {
+            return current.temperature();
+        }
+
+        @Override
+        public int humidity() {
+            return current.humidity();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.roomsensors.roomsensors.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends evictions to every other instance of this service registered in service discovery. Delivery is
+ * best effort; the cache's expireAfterWrite bounds staleness when an instance misses a message.
+ */
+@Component
+@ConditionalOnProperty(name = "sensors.cache.broadcast", havingValue = "discovery")
+public class DiscoverySensorCacheBroadcaster implements SensorCacheBroadcaster {
+    
+    public static final String SECRET_HEADER = "X-Cache-Secret";
+    
+    private static final Logger log = LoggerFactory.getLogger(DiscoverySensorCacheBroadcaster.class);
+    
+    private static final int TIMEOUT_MS = 2000;
+    
+    @Autowired
+    private DiscoveryClient discoveryClient;
+    
+    @Autowired
+    private ObjectProvider<Registration> registration;
+    
+    @Value("${spring.application.name}")
+    private String serviceId;
+    
+    @Value("${sensors.cache.broadcast-secret:}")
+    private String secret;
+    
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("sensor-cache-broadcast").daemon().factory());
+    
+    public DiscoverySensorCacheBroadcaster() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT_MS);
+        requestFactory.setReadTimeout(TIMEOUT_MS);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+    
+    @Override
+    public void broadcastEviction(Long sensorId) {
+        executor.execute(() -> {
+            Registration self = registration.getIfAvailable();
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                if (self != null && instance.getInstanceId() != null && instance.getInstanceId().equals(self.getInstanceId())) {
+                    continue;
+                }
+                try {
+                    restClient.post()
+                        .uri(instance.getUri() + "/internal/cache/sensors/{sensorId}/evict", sensorId)
+                        .header(SECRET_HEADER, secret)
+                        .retrieve()
+                        .toBodilessEntity();
+                } catch (RuntimeException e) {
+                    log.warn("Could not evict sensor {} on {}: {}", sensorId, instance.getUri(), e.getMessage());
+                }
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,82 @@
+package com.roomsensors.roomsensors.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Checks the {@code X-Gateway-Identity} header the API gateway attaches after verifying a bearer token. The
+ * header is HMAC-SHA256 signed with a secret shared with the gateway, so checking it costs one short HMAC
+ * instead of a full token verification. Only used when {@code gateway.identity.trust=true}. sensor-query-service
+ * keeps a copy of this class; change both together.
+ */
+@Service
+public class GatewayIdentityService {
+
+    public static final String IDENTITY_HEADER = "X-Gateway-Identity";
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    @Value("${gateway.identity.trust:false}")
+    private boolean trusted;
+
+    @Value("${gateway.identity.secret:}")
+    private String secret;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        if (!trusted) {
+            return;
+        }
+        if (secret.isBlank()) {
+            throw new RuntimeException("gateway.identity.trust=true requires gateway.identity.secret");
+        }
+        key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * Returns the identity carried by the header, or {@code null} when the header is malformed, not signed
+     * with the shared secret or past the expiration of the token it was issued for.
+     */
+    public JwtService.VerifiedToken verify(String header) {
+        // <base64url(username)>.<role>.<expiry epoch seconds>.<base64url(signature)>
+        int signatureStart = header.lastIndexOf('.');
+        String[] parts = header.split("\\.");
+        if (parts.length != 4 || signatureStart < 0) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] expected = mac.doFinal(header.substring(0, signatureStart).getBytes(StandardCharsets.UTF_8));
+            byte[] actual = BASE64_ENCODER.encodeToString(expected).getBytes(StandardCharsets.US_ASCII);
+            if (!MessageDigest.isEqual(actual, parts[3].getBytes(StandardCharsets.US_ASCII))) {
+                return null;
+            }
+            long expiresAtMillis = Long.parseLong(parts[2]) * 1000;
+            if (expiresAtMillis <= System.currentTimeMillis()) {
+                return null;
+            }
+            String username = new String(BASE64_DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+            return new JwtService.VerifiedToken(username, parts[1], expiresAtMillis);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
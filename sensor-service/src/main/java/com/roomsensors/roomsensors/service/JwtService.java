@@ -1,15 +1,25 @@
 package com.roomsensors.roomsensors.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -22,8 +32,43 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}") // 24 hours
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    // Null when jwt.cache.maximum-size=0
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+        if (cacheMaximumSize == 0) {
+            return;
+        }
+        // Each entry lives until its token expires, so a cached token is never accepted past its expiration
+        verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaximumSize)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                    return Math.max(0, token.getExpiresAtMillis() - System.currentTimeMillis()) * 1_000_000L;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
     }
     
     public String generateToken(String username, String role) {
@@ -38,10 +83,32 @@ public class JwtService {
             .setSubject(subject)
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+            .signWith(signingKey, SignatureAlgorithm.HS512)
             .compact();
     }
     
+    /**
+     * Verifies the token's signature and expiration once and returns its subject and role. Tokens seen
+     * before are answered from a bounded cache keyed by the token's SHA-256, skipping the HMAC check.
+     *
+     * sensor-query-service verifies tokens with a trimmed copy of this method; change both together.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with, expired or has no expiration
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return toVerifiedToken(extractAllClaims(token));
+        }
+        String key = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null) {
+            return verified;
+        }
+        verified = toVerifiedToken(extractAllClaims(token));
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -60,11 +127,7 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
     
     public Boolean isTokenExpired(String token) {
@@ -75,5 +138,47 @@ public class JwtService {
         final String tokenUsername = extractUsername(token);
         return (tokenUsername.equals(username) && !isTokenExpired(token));
     }
-}
+    
+    // The parser only checks exp when it is present; a token without one would otherwise never expire
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("JWT has no expiration");
+        }
+        return new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+            claims.getExpiration().getTime());
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public static final class VerifiedToken {
+
+        private final String username;
+        private final String role;
+        private final long expiresAtMillis;
+
+        public VerifiedToken(String username, String role, long expiresAtMillis) {
+            this.username = username;
+            this.role = role;
+            this.expiresAtMillis = expiresAtMillis;
+        }
 
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.roomsensors.roomsensors.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-instance deployments have no other caches to invalidate.
+ */
+@Component
+@ConditionalOnProperty(name = "sensors.cache.broadcast", havingValue = "local", matchIfMissing = true)
+public class LocalSensorCacheBroadcaster implements SensorCacheBroadcaster {
+    
+    @Override
+    public void broadcastEviction(Long sensorId) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementColumns;
+import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves measurements older than {@code measurements.cold-storage.age} from the measurements table into the
+ * {@link MeasurementColdStore}, one sealed range of {@code segment-resolution} per sensor and transaction: the
+ * rows are written to the cold store and deleted from the table in the same transaction. Each sensor continues
+ * after the end of its newest sealed range, so a run that runs out of time resumes where it stopped.
+ */
+@Service
+public class MeasurementColdStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementColdStorageService.class);
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private MeasurementRowReader measurementRowReader;
+
+    @Autowired
+    private MeasurementColdStore coldStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${measurements.cold-storage.age:90d}")
+    private Duration age;
+
+    @Value("${measurements.cold-storage.segment-resolution:DAY}")
+    private BucketResolution segmentResolution;
+
+    @Value("${measurements.cold-storage.max-run-time:30s}")
+    private Duration maxRunTime;
+
+    private final TransactionTemplate transactionTemplate;
+    private Counter rowsCounter;
+    private Counter segmentsCounter;
+
+    public MeasurementColdStorageService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        rowsCounter = Counter.builder("measurements.cold-storage.rows")
+            .description("Measurements moved from the measurements table to cold storage")
+            .register(meterRegistry);
+        segmentsCounter = Counter.builder("measurements.cold-storage.segments")
+            .description("Sealed ranges written to cold storage")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${measurements.cold-storage.run-interval-ms:60000}",
+               initialDelayString = "${measurements.cold-storage.run-interval-ms:60000}")
+    public void seal() {
+        if (!coldStore.isEnabled()) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        LocalDateTime until = segmentResolution.truncate(LocalDateTime.now().minus(age));
+        for (Long sensorId : measurementRepository.findDistinctSensorIds()) {
+            if (!seal(sensorId, until, deadline)) {
+                log.info("Measurement sealing ran for {} s and continues with the next run", maxRunTime.toSeconds());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Seals the measurements of one sensor before {@code until}, range by range. Returns false if the deadline
+     * passed first.
+     */
+    boolean seal(Long sensorId, LocalDateTime until, long deadline) {
+        int segments = 0;
+        long rows = 0;
+        try {
+            while (true) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                Integer sealed = transactionTemplate.execute(status -> sealNextRange(sensorId, until));
+                if (sealed == null || sealed == 0) {
+                    return true;
+                }
+                segments++;
+                rows += sealed;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another instance sealed the same range first
+            return true;
+        } finally {
+            if (segments > 0) {
+                log.info("Sealed {} measurements of sensor {} into {} segments", rows, sensorId, segments);
+            }
+        }
+    }
+
+    // Returns the number of measurements sealed, 0 when the sensor has nothing left to seal before until
+    private int sealNextRange(Long sensorId, LocalDateTime until) {
+        LocalDateTime sealedUntil = coldStore.findSealedUntil(sensorId);
+        LocalDateTime next = sealedUntil == null
+            ? measurementRepository.findFirstTimestampBySensorId(sensorId)
+            : measurementRepository.findFirstTimestampBySensorIdFrom(sensorId, sealedUntil);
+        if (next == null || !next.isBefore(until)) {
+            return 0;
+        }
+        LocalDateTime start = segmentResolution.truncate(next);
+        if (sealedUntil != null && start.isBefore(sealedUntil)) {
+            // The resolution was made coarser since the previous range was sealed
+            start = sealedUntil;
+        }
+        LocalDateTime end = segmentResolution.next(segmentResolution.truncate(next));
+
+        MeasurementColumns rows = new MeasurementColumns();
+        // Both bounds are inclusive; timestamps have microsecond precision
+        measurementRowReader.forEachRow(sensorId, start, end.minusNanos(1000), rows);
+        if (rows.size() == 0) {
+            return 0;
+        }
+        coldStore.seal(sensorId, start, end, rows);
+
+        // Deleted by id, so a reading that arrives for the range while it is being sealed stays in the table
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ids.add(rows.id(i));
+        }
+        for (int i = 0; i < ids.size(); i += DELETE_BATCH_SIZE) {
+            measurementRepository.deleteBySensorIdAndTimestampRangeAndIdIn(sensorId, start, end,
+                ids.subList(i, Math.min(i + DELETE_BATCH_SIZE, ids.size())));
+        }
+        rowsCounter.increment(rows.size());
+        segmentsCounter.increment();
+        return rows.size();
+    }
+}
@@ -0,0 +1,316 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.model.MeasurementCompaction;
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementCompactionRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compacts raw measurements older than {@code measurements.compaction.age}. A compacted interval keeps its
+ * rollup (count, sum, min and max) as the downsampled reading, and only those raw readings that deviate from the
+ * interval average by more than the configured thresholds. Each sensor is compacted in chunks of intervals, one
+ * transaction per chunk, and its checkpoint advances with every chunk, so a run that is interrupted or runs out
+ * of time resumes where it stopped.
+ */
+@Service
+public class MeasurementCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementCompactionService.class);
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private MeasurementCompactionRepository compactionRepository;
+
+    @Autowired
+    private MeasurementRowReader measurementRowReader;
+
+    @Autowired
+    private MeasurementRollupService rollupService;
+
+    @Autowired
+    private MeasurementColdStore coldStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${measurements.compaction.enabled:false}")
+    private boolean enabled;
+
+    @Value("${measurements.compaction.age:30d}")
+    private Duration age;
+
+    // Takes effect for sensors compacted for the first time; a sensor keeps the resolution it was compacted with
+    @Value("${measurements.compaction.resolution:MINUTE}")
+    private BucketResolution resolution;
+
+    @Value("${measurements.compaction.chunk-intervals:1440}")
+    private int chunkIntervals;
+
+    @Value("${measurements.compaction.max-run-time:30s}")
+    private Duration maxRunTime;
+
+    // Readings further than this from their interval average are kept (degrees Celsius and percent humidity)
+    @Value("${measurements.compaction.outlier.temperature-deviation:1.0}")
+    private double temperatureDeviation;
+
+    @Value("${measurements.compaction.outlier.humidity-deviation:5.0}")
+    private double humidityDeviation;
+
+    private final TransactionTemplate transactionTemplate;
+    private Counter removedCounter;
+    private Counter retainedCounter;
+
+    public MeasurementCompactionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !rollupService.isEnabled()) {
+            throw new RuntimeException("measurements.compaction.enabled requires measurements.rollup.enabled");
+        }
+        // Compaction drops readings that cold storage would keep; a sensor's history uses one or the other
+        if (enabled && coldStore.isEnabled()) {
+            throw new RuntimeException("measurements.compaction.enabled cannot be combined with measurements.cold-storage.engine");
+        }
+        removedCounter = Counter.builder("measurements.compaction.rows")
+            .description("Raw measurements processed by compaction")
+            .tag("outcome", "removed")
+            .register(meterRegistry);
+        retainedCounter = Counter.builder("measurements.compaction.rows")
+            .description("Raw measurements processed by compaction")
+            .tag("outcome", "retained")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Rejects a range reaching into the sensor's compacted history, for paths that need every raw reading
+     * (statistics, export). Compacted intervals keep only count, sum, min and max, so percentiles, deviations and
+     * per-reading output cannot be reproduced there.
+     */
+    public void requireRawHistory(Long sensorId, LocalDateTime start) {
+        compactionRepository.findById(sensorId).ifPresent(checkpoint -> {
+            if (start.isBefore(checkpoint.getCompactedUntil())) {
+                throw new RuntimeException("Measurements of sensor " + sensorId + " before "
+                    + checkpoint.getCompactedUntil() + " are compacted, the range must start at or after it");
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${measurements.compaction.run-interval-ms:60000}",
+               initialDelayString = "${measurements.compaction.run-interval-ms:60000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        LocalDateTime cutoff = LocalDateTime.now().minus(age);
+        for (Long sensorId : measurementRepository.findDistinctSensorIds()) {
+            if (!compact(sensorId, cutoff, deadline)) {
+                log.info("Measurement compaction ran for {} s and continues with the next run", maxRunTime.toSeconds());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compacts one sensor up to {@code cutoff}, chunk by chunk. Returns false if the deadline passed first.
+     */
+    boolean compact(Long sensorId, LocalDateTime cutoff, long deadline) {
+        if (!createCheckpoint(sensorId)) {
+            return true;
+        }
+        ChunkResult total = new ChunkResult();
+        boolean more = true;
+        while (more) {
+            if (System.nanoTime() - deadline > 0) {
+                logProgress(sensorId, total);
+                return false;
+            }
+            ChunkResult chunk = transactionTemplate.execute(status -> compactChunk(sensorId, cutoff));
+            total.add(chunk);
+            more = chunk.more;
+        }
+        logProgress(sensorId, total);
+        return true;
+    }
+
+    // Returns false if the sensor has no measurements
+    private boolean createCheckpoint(Long sensorId) {
+        if (compactionRepository.existsById(sensorId)) {
+            return true;
+        }
+        LocalDateTime first = measurementRepository.findFirstTimestampBySensorId(sensorId);
+        if (first == null) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> compactionRepository.saveAndFlush(
+                new MeasurementCompaction(sensorId, resolution, resolution.truncate(first))));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the checkpoint first
+        }
+        return true;
+    }
+
+    private ChunkResult compactChunk(Long sensorId, LocalDateTime cutoff) {
+        ChunkResult result = new ChunkResult();
+        MeasurementCompaction checkpoint = compactionRepository.findForUpdate(sensorId).orElse(null);
+        if (checkpoint == null) {
+            return result;
+        }
+        BucketResolution interval = checkpoint.getResolution();
+        LocalDateTime until = interval.truncate(cutoff);
+        LocalDateTime from = checkpoint.getCompactedUntil();
+        if (!from.isBefore(until)) {
+            return result;
+        }
+
+        // Skip gaps in the history instead of walking them chunk by chunk
+        LocalDateTime next = measurementRepository.findFirstTimestampBySensorIdFrom(sensorId, from);
+        if (next == null || !next.isBefore(until)) {
+            checkpoint.setCompactedUntil(until);
+            result.compactedUntil = until;
+            return result;
+        }
+        LocalDateTime start = interval.truncate(next);
+        LocalDateTime end = start.plus(chunkIntervals, interval.getUnit());
+        if (end.isAfter(until)) {
+            end = until;
+        }
+
+        IntervalCompactor compactor = new IntervalCompactor(interval,
+            (int) Math.round(temperatureDeviation * 100), (int) Math.round(humidityDeviation * 100));
+        // Both bounds are inclusive; timestamps have microsecond precision
+        measurementRowReader.forEachRow(sensorId, start, end.minusNanos(1000), compactor);
+        compactor.finishInterval();
+
+        List<Long> removed = compactor.removed;
+        for (int i = 0; i < removed.size(); i += DELETE_BATCH_SIZE) {
+            measurementRepository.deleteBySensorIdAndTimestampRangeAndIdIn(sensorId, start, end,
+                removed.subList(i, Math.min(i + DELETE_BATCH_SIZE, removed.size())));
+        }
+        checkpoint.setCompactedUntil(end);
+
+        removedCounter.increment(removed.size());
+        retainedCounter.increment(compactor.retained);
+        result.removed = removed.size();
+        result.retained = compactor.retained;
+        result.compactedUntil = end;
+        result.more = end.isBefore(until);
+        return result;
+    }
+
+    private static void logProgress(Long sensorId, ChunkResult total) {
+        if (total.removed + total.retained > 0) {
+            log.info("Compacted measurements of sensor {} up to {}: removed {}, kept {} outliers",
+                sensorId, total.compactedUntil, total.removed, total.retained);
+        }
+    }
+
+    private static final class ChunkResult {
+        private long removed;
+        private long retained;
+        private LocalDateTime compactedUntil;
+        private boolean more;
+
+        void add(ChunkResult chunk) {
+            removed += chunk.removed;
+            retained += chunk.retained;
+            if (chunk.compactedUntil != null) {
+                compactedUntil = chunk.compactedUntil;
+            }
+        }
+    }
+
+    /**
+     * Splits the rows of a chunk, which arrive ordered by timestamp, into intervals and decides per interval
+     * which readings are outliers worth keeping. Only the current interval is buffered.
+     */
+    private static final class IntervalCompactor implements MeasurementRowReader.RowHandler {
+
+        private final BucketResolution interval;
+        private final int temperatureDeviation;
+        private final int humidityDeviation;
+        private final List<Long> removed = new ArrayList<>();
+        private long retained;
+
+        private long intervalStart = Long.MIN_VALUE;
+        private long[] ids = new long[64];
+        private int[] temperatures = new int[64];
+        private int[] humidities = new int[64];
+        private int size;
+        private long temperatureSum;
+        private long humiditySum;
+
+        IntervalCompactor(BucketResolution interval, int temperatureDeviation, int humidityDeviation) {
+            this.interval = interval;
+            this.temperatureDeviation = temperatureDeviation;
+            this.humidityDeviation = humidityDeviation;
+        }
+
+        @Override
+        public void row(long id, long epochMicros, int temperature, int humidity) {
+            long rowInterval = interval.truncate(epochMicros);
+            if (rowInterval != intervalStart) {
+                finishInterval();
+                intervalStart = rowInterval;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                temperatures = Arrays.copyOf(temperatures, size * 2);
+                humidities = Arrays.copyOf(humidities, size * 2);
+            }
+            ids[size] = id;
+            temperatures[size] = temperature;
+            humidities[size] = humidity;
+            size++;
+            temperatureSum += temperature;
+            humiditySum += humidity;
+        }
+
+        void finishInterval() {
+            if (size == 0) {
+                return;
+            }
+            // Values are hundredths, so the averages are compared in hundredths as well
+            double temperatureAverage = (double) temperatureSum / size;
+            double humidityAverage = (double) humiditySum / size;
+            for (int i = 0; i < size; i++) {
+                if (Math.abs(temperatures[i] - temperatureAverage) > temperatureDeviation
+                        || Math.abs(humidities[i] - humidityAverage) > humidityDeviation) {
+                    retained++;
+                } else {
+                    removed.add(ids[i]);
+                }
+            }
+            size = 0;
+            temperatureSum = 0;
+            humiditySum = 0;
+        }
+    }
+}
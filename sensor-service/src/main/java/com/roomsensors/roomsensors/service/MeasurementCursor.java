@@ -0,0 +1,51 @@
+package com.roomsensors.roomsensors.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination over (sensor_id, timestamp, id).
+ */
+public final class MeasurementCursor {
+
+    private final Long sensorId;
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public MeasurementCursor(Long sensorId, LocalDateTime timestamp, Long id) {
+        this.sensorId = sensorId;
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public Long getSensorId() {
+        return sensorId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = sensorId + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MeasurementCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new MeasurementCursor(Long.valueOf(parts[0]), LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.repository.MeasurementHistoryReader;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes measurement history straight from a forward-only database cursor, merged with sealed cold
+ * segments, to an output stream, so memory use does not depend on the number of exported rows. Rows are
+ * read as primitives and formatted into a reused line buffer; both formats are plain ASCII.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MeasurementExportService {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] CSV_HEADER = "id,sensorId,timestamp,temperature,humidity\n".getBytes(StandardCharsets.US_ASCII);
+    
+    @Autowired
+    private MeasurementHistoryReader measurementHistoryReader;
+    
+    public void export(Long sensorId, LocalDateTime start, LocalDateTime end, MeasurementExportFormat format,
+                       boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip
+            ? new GZIPOutputStream(out, BUFFER_SIZE)
+            : new BufferedOutputStream(out, BUFFER_SIZE);
+        
+        if (format == MeasurementExportFormat.CSV) {
+            target.write(CSV_HEADER);
+        }
+        try {
+            measurementHistoryReader.forEachRow(sensorId, start, end, new RowWriter(sensorId, format, target));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        target.flush();
+    }
+    
+    private static final class RowWriter implements MeasurementRowReader.RowHandler {
+        
+        private static final byte[] NDJSON_ID = "{\"id\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NDJSON_SENSOR_ID = ",\"sensorId\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NDJSON_TIMESTAMP = ",\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NDJSON_TEMPERATURE = "\",\"temperature\":".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] NDJSON_HUMIDITY = ",\"humidity\":".getBytes(StandardCharsets.US_ASCII);
+        
+        private final long sensorId;
+        private final boolean csv;
+        private final OutputStream out;
+        private final byte[] line = new byte[256];
+        
+        RowWriter(long sensorId, MeasurementExportFormat format, OutputStream out) {
+            this.sensorId = sensorId;
+            this.csv = format == MeasurementExportFormat.CSV;
+            this.out = out;
+        }
+        
+        @Override
+        public void row(long id, long epochMicros, int temperature, int humidity) {
+            int pos;
+            if (csv) {
+                pos = writeLong(line, 0, id);
+                line[pos++] = ',';
+                pos = writeLong(line, pos, sensorId);
+                line[pos++] = ',';
+                pos = writeTimestamp(line, pos, epochMicros);
+                line[pos++] = ',';
+                pos = writeHundredths(line, pos, temperature);
+                line[pos++] = ',';
+                pos = writeHundredths(line, pos, humidity);
+            } else {
+                pos = put(line, 0, NDJSON_ID);
+                pos = writeLong(line, pos, id);
+                pos = put(line, pos, NDJSON_SENSOR_ID);
+                pos = writeLong(line, pos, sensorId);
+                pos = put(line, pos, NDJSON_TIMESTAMP);
+                pos = writeTimestamp(line, pos, epochMicros);
+                pos = put(line, pos, NDJSON_TEMPERATURE);
+                pos = writeHundredths(line, pos, temperature);
+                pos = put(line, pos, NDJSON_HUMIDITY);
+                pos = writeHundredths(line, pos, humidity);
+                line[pos++] = '}';
+            }
+            line[pos++] = '\n';
+            try {
+                out.write(line, 0, pos);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    private static int put(byte[] buffer, int pos, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        return pos + bytes.length;
+    }
+    
+    private static int writeLong(byte[] buffer, int pos, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return put(buffer, pos, Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            }
+            buffer[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+    
+    // Same text as BigDecimal.toPlainString() of a scale-2 value, e.g. 2150 -> 21.50, -5 -> -0.05
+    private static int writeHundredths(byte[] buffer, int pos, int hundredths) {
+        if (hundredths < 0) {
+            buffer[pos++] = '-';
+        }
+        long magnitude = Math.abs((long) hundredths);
+        pos = writeLong(buffer, pos, magnitude / 100);
+        buffer[pos++] = '.';
+        buffer[pos++] = (byte) ('0' + magnitude / 10 % 10);
+        buffer[pos++] = (byte) ('0' + magnitude % 10);
+        return pos;
+    }
+    
+    // Same text as DateTimeFormatter.ISO_LOCAL_DATE_TIME, e.g. 2024-01-15T10:30:00.25
+    private static int writeTimestamp(byte[] buffer, int pos, long epochMicros) {
+        long epochSecond = Math.floorDiv(epochMicros, MeasurementRowReader.MICROS_PER_SECOND);
+        int micros = (int) Math.floorMod(epochMicros, MeasurementRowReader.MICROS_PER_SECOND);
+        long epochDay = Math.floorDiv(epochSecond, 86_400);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400);
+        
+        // Civil date from days since 1970-01-01 (proleptic Gregorian, eras of 400 years)
+        long shifted = epochDay + 719_468;
+        long era = Math.floorDiv(shifted, 146_097);
+        long dayOfEra = shifted - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            String text = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(MeasurementRowReader.toLocalDateTime(epochMicros));
+            return put(buffer, pos, text.getBytes(StandardCharsets.US_ASCII));
+        }
+        
+        pos = writeDigits(buffer, pos, (int) year, 4);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, month, 2);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, day, 2);
+        buffer[pos++] = 'T';
+        pos = writeDigits(buffer, pos, secondOfDay / 3600, 2);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, secondOfDay / 60 % 60, 2);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, secondOfDay % 60, 2);
+        if (micros != 0) {
+            buffer[pos++] = '.';
+            int digits = 6;
+            while (micros % 10 == 0) {
+                micros /= 10;
+                digits--;
+            }
+            pos = writeDigits(buffer, pos, micros, digits);
+        }
+        return pos;
+    }
+    
+    private static int writeDigits(byte[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
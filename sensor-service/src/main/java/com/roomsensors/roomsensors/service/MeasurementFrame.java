@@ -0,0 +1,129 @@
+package com.roomsensors.roomsensors.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary batch of measurements ({@value #CONTENT_TYPE}), decoded into primitive columns without a
+ * DTO, {@code BigDecimal} or {@code LocalDateTime} per reading. Big-endian layout:
+ * <pre>
+ * header  4 bytes  magic "RSM" + version 1
+ *         4 bytes  int32 record count
+ * record  8 bytes  int64 sensor ID
+ *         8 bytes  int64 timestamp, epoch milliseconds (UTC)
+ *         4 bytes  int32 temperature in hundredths (2150 = 21.50)
+ *         4 bytes  int32 humidity in hundredths
+ * </pre>
+ */
+public final class MeasurementFrame {
+
+    public static final String CONTENT_TYPE = "application/vnd.roomsensors.measurements.v1+binary";
+
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 24;
+
+    private static final int MAGIC = 'R' << 24 | 'S' << 16 | 'M' << 8 | 1;
+
+    private final long[] sensorIds;
+    private final long[] epochMillis;
+    private final int[] temperatures;
+    private final int[] humidities;
+
+    public MeasurementFrame(long[] sensorIds, long[] epochMillis, int[] temperatures, int[] humidities) {
+        if (epochMillis.length != sensorIds.length || temperatures.length != sensorIds.length
+                || humidities.length != sensorIds.length) {
+            throw new IllegalArgumentException("Columns must have the same length");
+        }
+        this.sensorIds = sensorIds;
+        this.epochMillis = epochMillis;
+        this.temperatures = temperatures;
+        this.humidities = humidities;
+    }
+
+    public int size() {
+        return sensorIds.length;
+    }
+
+    public long sensorId(int index) {
+        return sensorIds[index];
+    }
+
+    public long epochMillis(int index) {
+        return epochMillis[index];
+    }
+
+    public int temperature(int index) {
+        return temperatures[index];
+    }
+
+    public int humidity(int index) {
+        return humidities[index];
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size() * RECORD_SIZE);
+        buffer.putInt(MAGIC).putInt(size());
+        for (int i = 0; i < size(); i++) {
+            buffer.putLong(sensorIds[i]).putLong(epochMillis[i]).putInt(temperatures[i]).putInt(humidities[i]);
+        }
+        return buffer.array();
+    }
+
+    public static MeasurementFrame decode(byte[] bytes, int maxCount) {
+        if (bytes.length < HEADER_SIZE) {
+            throw new RuntimeException("Measurement frame is shorter than its header");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = readHeader(buffer, maxCount);
+        if (bytes.length != HEADER_SIZE + (long) count * RECORD_SIZE) {
+            throw new RuntimeException("Measurement frame of " + count + " records must be "
+                + (HEADER_SIZE + (long) count * RECORD_SIZE) + " bytes, got " + bytes.length);
+        }
+        return readRecords(buffer, count);
+    }
+
+    /**
+     * Reads one frame from {@code in}, rejecting frames of more than {@code maxCount} records before their
+     * records are read.
+     */
+    public static MeasurementFrame decode(InputStream in, int maxCount) throws IOException {
+        byte[] header = in.readNBytes(HEADER_SIZE);
+        if (header.length < HEADER_SIZE) {
+            throw new RuntimeException("Measurement frame is shorter than its header");
+        }
+        int count = readHeader(ByteBuffer.wrap(header), maxCount);
+        byte[] records = in.readNBytes(count * RECORD_SIZE);
+        if (records.length != count * RECORD_SIZE || in.read() != -1) {
+            throw new RuntimeException("Measurement frame of " + count + " records must be "
+                + (HEADER_SIZE + count * RECORD_SIZE) + " bytes");
+        }
+        return readRecords(ByteBuffer.wrap(records), count);
+    }
+
+    private static int readHeader(ByteBuffer buffer, int maxCount) {
+        if (buffer.getInt() != MAGIC) {
+            throw new RuntimeException("Not a version 1 measurement frame");
+        }
+        int count = buffer.getInt();
+        if (count < 0 || count > maxCount) {
+            throw new RuntimeException("Batch contains " + Integer.toUnsignedString(count)
+                + " measurements, maximum is " + maxCount);
+        }
+        return count;
+    }
+
+    private static MeasurementFrame readRecords(ByteBuffer buffer, int count) {
+        long[] sensorIds = new long[count];
+        long[] epochMillis = new long[count];
+        int[] temperatures = new int[count];
+        int[] humidities = new int[count];
+        for (int i = 0; i < count; i++) {
+            sensorIds[i] = buffer.getLong();
+            epochMillis[i] = buffer.getLong();
+            temperatures[i] = buffer.getInt();
+            humidities[i] = buffer.getInt();
+        }
+        return new MeasurementFrame(sensorIds, epochMillis, temperatures, humidities);
+    }
+}
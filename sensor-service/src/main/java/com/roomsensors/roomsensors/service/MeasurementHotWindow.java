@@ -0,0 +1,169 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.event.MeasurementDeletedEvent;
+import com.roomsensors.roomsensors.event.MeasurementsCreatedEvent;
+import com.roomsensors.roomsensors.event.SensorChangedEvent;
+import com.roomsensors.roomsensors.model.Measurement;
+import com.roomsensors.roomsensors.model.Sensor;
+import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import com.roomsensors.roomsensors.repository.SensorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the newest readings of every sensor in memory so dashboards polling for the latest values rarely
+ * reach the database. Fed after each committed ingest, warmed from the database on startup and loaded on
+ * first access for sensors it has not seen yet. Ingests and deletes on other instances are not seen here, so
+ * a window older than {@code measurements.hot-window.max-staleness} is reloaded on its next read.
+ */
+@Service
+public class MeasurementHotWindow {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementHotWindow.class);
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private SensorCache sensorCache;
+
+    @Value("${measurements.hot-window.capacity:1000}")
+    private int capacity;
+
+    @Value("${measurements.hot-window.warm-on-startup:true}")
+    private boolean warmOnStartup;
+
+    // Zero never reloads, which is only correct with a single instance
+    @Value("${measurements.hot-window.max-staleness:0}")
+    private Duration maxStaleness;
+
+    private final ConcurrentMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!warmOnStartup) {
+            return;
+        }
+        long started = System.nanoTime();
+        for (Sensor sensor : sensorRepository.findAll()) {
+            windows.computeIfAbsent(sensor.getId(), this::load);
+        }
+        log.info("Warmed measurement hot window for {} sensors in {} ms",
+            windows.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMeasurementsCreated(MeasurementsCreatedEvent event) {
+        for (Measurement measurement : event.getMeasurements()) {
+            Long sensorId = measurement.getSensor().getId();
+            // A sensor seen for the first time is loaded from the database, which already includes this reading
+            MeasurementRingBuffer window = windows.computeIfAbsent(sensorId, this::load).buffer();
+            window.add(measurement.getId(), MeasurementRowReader.toEpochMicros(measurement.getTimestamp()),
+                scale(measurement.getTemperature()), scale(measurement.getHumidity()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMeasurementDeleted(MeasurementDeletedEvent event) {
+        Window window = windows.get(event.getSensorId());
+        if (window != null) {
+            window.buffer().remove(event.getMeasurementId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSensorChanged(SensorChangedEvent event) {
+        if (event.isDeleted()) {
+            windows.remove(event.getSensorId());
+        }
+    }
+
+    public MeasurementDTO getLatest(Long sensorId) {
+        MeasurementRingBuffer.Snapshot snapshot = window(sensorId).since(Long.MIN_VALUE, 1);
+        if (snapshot.getCount() == 0) {
+            throw new RuntimeException("No measurements for sensor with id: " + sensorId);
+        }
+        return toDTO(sensorId, snapshot, 0);
+    }
+
+    /**
+     * Readings of the last {@code window}, oldest first. Limited to the newest
+     * {@code measurements.hot-window.capacity} readings of the sensor.
+     */
+    public List<MeasurementDTO> getRecent(Long sensorId, Duration window) {
+        long from = MeasurementRowReader.toEpochMicros(LocalDateTime.now().minus(window));
+        MeasurementRingBuffer.Snapshot snapshot = window(sensorId).since(from, capacity);
+        List<MeasurementDTO> readings = new ArrayList<>(snapshot.getCount());
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            readings.add(toDTO(sensorId, snapshot, i));
+        }
+        return readings;
+    }
+
+    private MeasurementRingBuffer window(Long sensorId) {
+        Window window = windows.get(sensorId);
+        if (window != null && isFresh(window)) {
+            return window.buffer();
+        }
+        if (sensorCache.find(sensorId).isEmpty()) {
+            windows.remove(sensorId);
+            throw new RuntimeException("Sensor not found with id: " + sensorId);
+        }
+        // Concurrent reads of a stale window wait for one reload instead of each querying the database
+        return windows.compute(sensorId, (id, current) -> current != null && isFresh(current) ? current : load(id))
+            .buffer();
+    }
+
+    private boolean isFresh(Window window) {
+        return maxStaleness.isZero() || System.nanoTime() - window.loadedAt() < maxStaleness.toNanos();
+    }
+
+    private Window load(Long sensorId) {
+        long loadedAt = System.nanoTime();
+        MeasurementRingBuffer window = new MeasurementRingBuffer(capacity);
+        for (Object[] row : measurementRepository.findLatestValuesBySensorId(sensorId, PageRequest.of(0, capacity))) {
+            window.add((Long) row[0], MeasurementRowReader.toEpochMicros((LocalDateTime) row[1]),
+                scale((BigDecimal) row[2]), scale((BigDecimal) row[3]));
+        }
+        return new Window(window, loadedAt);
+    }
+
+    private static MeasurementDTO toDTO(Long sensorId, MeasurementRingBuffer.Snapshot snapshot, int index) {
+        MeasurementDTO dto = new MeasurementDTO();
+        dto.setId(snapshot.getId(index));
+        dto.setSensorId(sensorId);
+        dto.setTimestamp(MeasurementRowReader.toLocalDateTime(snapshot.getTimestamp(index)));
+        dto.setTemperature(BigDecimal.valueOf(snapshot.getTemperature(index), 2));
+        dto.setHumidity(BigDecimal.valueOf(snapshot.getHumidity(index), 2));
+        return dto;
+    }
+
+    private static int scale(BigDecimal value) {
+        return value.movePointRight(2).intValue();
+    }
+
+    // loadedAt is System.nanoTime() before the window was read from the database
+    private record Window(MeasurementRingBuffer buffer, long loadedAt) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.dto.MeasurementBatchResultDTO;
+import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.exception.IngestQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind ingestion pipeline. Accepted measurements are buffered in a bounded queue and
+ * written by flusher threads in micro-batches through {@link MeasurementService#createMeasurements}.
+ * Disabled unless {@code measurements.ingest.async.enabled=true}.
+ */
+@Service
+public class MeasurementIngestQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementIngestQueue.class);
+
+    // Stop after the web server has finished its graceful shutdown so no request can enqueue behind the drain
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    @Autowired
+    private MeasurementService measurementService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${measurements.ingest.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${measurements.ingest.async.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${measurements.ingest.async.flusher-threads:2}")
+    private int flusherThreads;
+
+    // Follows spring.threads.virtual.enabled unless set explicitly
+    @Value("${measurements.ingest.async.virtual-threads:${spring.threads.virtual.enabled:false}}")
+    private boolean virtualFlushers;
+
+    @Value("${measurements.ingest.async.batch-size:500}")
+    private int batchSize;
+
+    @Value("${measurements.ingest.async.max-delay-ms:200}")
+    private long maxDelayMs;
+
+    @Value("${measurements.ingest.async.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${measurements.ingest.async.shutdown-timeout-ms:20000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<MeasurementDTO> queue;
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a measurement after the same sensor checks as the synchronous endpoint. A reading without a
+     * timestamp is stamped here, so a delayed write does not shift it.
+     */
+    public void enqueue(MeasurementDTO measurementDTO) {
+        measurementService.requireActiveSensor(measurementDTO.getSensorId());
+        if (measurementDTO.getTimestamp() == null) {
+            measurementDTO.setTimestamp(LocalDateTime.now());
+        }
+        if (!running || !queue.offer(measurementDTO)) {
+            rejectedCounter.increment();
+            throw new IngestQueueFullException("Measurement ingest queue is full, retry later", retryAfterSeconds);
+        }
+        acceptedCounter.increment();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("measurements.ingest.queue.size", queue, BlockingQueue::size)
+            .description("Measurements waiting to be written")
+            .register(meterRegistry);
+        acceptedCounter = meterRegistry.counter("measurements.ingest.queue.accepted");
+        rejectedCounter = meterRegistry.counter("measurements.ingest.queue.rejected");
+        writtenCounter = meterRegistry.counter("measurements.ingest.queue.written");
+        droppedCounter = meterRegistry.counter("measurements.ingest.queue.dropped");
+
+        running = true;
+        ThreadFactory threadFactory = virtualFlushers
+            ? Thread.ofVirtual().name("measurement-flusher-", 0).factory()
+            : Thread.ofPlatform().name("measurement-flusher-", 0).factory();
+        for (int i = 0; i < flusherThreads; i++) {
+            Thread flusher = threadFactory.newThread(this::runFlusher);
+            flushers.add(flusher);
+            flusher.start();
+        }
+        log.info("Asynchronous measurement ingestion started with capacity {} and {} {} flusher threads",
+            queueCapacity, flusherThreads, virtualFlushers ? "virtual" : "platform");
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        flushers.clear();
+
+        if (!queue.isEmpty()) {
+            log.error("Shutdown timed out with {} measurements still queued", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runFlusher() {
+        List<MeasurementDTO> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                writeWithRetry(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<MeasurementDTO> batch) throws InterruptedException {
+        MeasurementDTO first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        // Flush when the batch is full or the oldest reading has waited maxDelayMs, whichever comes first
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            MeasurementDTO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeWithRetry(List<MeasurementDTO> batch) {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    droppedCounter.increment(batch.size());
+                    log.error("Dropping {} queued measurements during shutdown", batch.size(), e);
+                    return;
+                }
+                if (!isTransient(e)) {
+                    writeIndividually(batch, e);
+                    return;
+                }
+                // Keep the batch and let the queue absorb the backlog while the database recovers
+                log.warn("Writing {} queued measurements failed, retrying in {} ms", batch.size(), backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void write(List<MeasurementDTO> batch) {
+        MeasurementBatchResultDTO result = measurementService.createMeasurements(batch);
+        writtenCounter.increment(result.getAccepted());
+        if (result.getRejected() > 0) {
+            droppedCounter.increment(result.getRejected());
+            log.warn("Dropped {} invalid queued measurements", result.getRejected());
+        }
+    }
+
+    // A batch that fails for a reason retrying cannot fix is written reading by reading, dropping only those
+    // that fail again, so one bad reading neither blocks the flusher nor takes the rest of the batch with it
+    private void writeIndividually(List<MeasurementDTO> batch, RuntimeException cause) {
+        log.error("Writing {} queued measurements failed, writing them one by one", batch.size(), cause);
+        for (MeasurementDTO measurement : batch) {
+            try {
+                write(List.of(measurement));
+            } catch (RuntimeException e) {
+                droppedCounter.increment();
+                log.error("Dropped queued measurement for sensor {} at {}", measurement.getSensorId(),
+                    measurement.getTimestamp(), e);
+            }
+        }
+    }
+
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException
+                    || t instanceof CannotGetJdbcConnectionException
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof SQLTransientException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
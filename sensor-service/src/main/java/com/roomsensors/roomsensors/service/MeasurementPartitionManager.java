@@ -0,0 +1,204 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.repository.MeasurementRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of a time-partitioned {@code measurements} table (PostgreSQL, see the
+ * {@code partitioned} profile): creates partitions ahead of time and enforces retention by dropping whole
+ * partitions instead of deleting rows. Disabled unless {@code measurements.partitioning.enabled=true}.
+ */
+@Component
+public class MeasurementPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementPartitionManager.class);
+
+    private static final String PARENT_TABLE = "measurements";
+    private static final String DEFAULT_PARTITION = "measurements_default";
+    private static final String PARTITION_PREFIX = "measurements_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Serializes maintenance across service instances sharing the database
+    private static final long ADVISORY_LOCK_KEY = 0x6d65617370617274L;
+
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeasurementRollupRepository rollupRepository;
+
+    @Value("${measurements.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${measurements.partitioning.interval:MONTHS}")
+    private ChronoUnit interval;
+
+    @Value("${measurements.partitioning.premake:3}")
+    private int premake;
+
+    @Value("${measurements.partitioning.retention:0}")
+    private Duration retention;
+
+    @Value("${measurements.partitioning.lock-timeout:10s}")
+    private Duration lockTimeout;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MeasurementPartitionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (interval != ChronoUnit.DAYS && interval != ChronoUnit.MONTHS) {
+            throw new RuntimeException("measurements.partitioning.interval must be DAYS or MONTHS");
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            throw new RuntimeException("Partitioned measurement storage requires PostgreSQL, found " + database);
+        }
+        maintain();
+    }
+
+    @Scheduled(cron = "${measurements.partitioning.maintenance-cron:0 5 * * * *}")
+    public void scheduledMaintenance() {
+        if (enabled) {
+            maintain();
+        }
+    }
+
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime first = truncate(now);
+        for (int i = 0; i <= premake; i++) {
+            LocalDateTime from = first.plus(i, interval);
+            runLocked(() -> createPartitions(from, from.plus(1, interval)));
+        }
+
+        if (!retention.isZero()) {
+            LocalDateTime cutoff = truncate(now.minus(retention));
+            runLocked(() -> dropPartitionsBefore(cutoff));
+        }
+    }
+
+    // Creates partitions for the parts of [from, to) not already covered, e.g. after switching interval
+    private void createPartitions(LocalDateTime from, LocalDateTime to) {
+        List<Partition> existing = loadPartitions();
+        existing.sort(Comparator.comparing(Partition::from));
+
+        LocalDateTime gapStart = from;
+        for (Partition partition : existing) {
+            if (!partition.to().isAfter(gapStart) || !partition.from().isBefore(to)) {
+                continue;
+            }
+            if (partition.from().isAfter(gapStart)) {
+                createPartition(gapStart, partition.from());
+            }
+            gapStart = partition.to();
+        }
+        if (gapStart.isBefore(to)) {
+            createPartition(gapStart, to);
+        }
+    }
+
+    // Rows already routed to the default partition for this range are moved before attaching, because
+    // PostgreSQL refuses to attach a partition whose range still has rows in the default partition.
+    private void createPartition(LocalDateTime from, LocalDateTime to) {
+        String name = PARTITION_PREFIX + PARTITION_SUFFIX.format(from);
+        jdbcTemplate.execute("CREATE TABLE " + name
+            + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+            + " WHERE timestamp >= ? AND timestamp < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+            from, to);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + name
+            + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created measurement partition {} for [{}, {}), moved {} rows from the default partition",
+            name, from, to, moved);
+    }
+
+    private void dropPartitionsBefore(LocalDateTime cutoff) {
+        // A partition straddling the cutoff (e.g. a monthly one after switching to DAYS) is kept whole, so
+        // default-partition rows and rollups are only trimmed up to its start
+        LocalDateTime trimBefore = cutoff;
+        for (Partition partition : loadPartitions()) {
+            if (!partition.to().isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                log.info("Dropped measurement partition {} for [{}, {})",
+                    partition.name(), partition.from(), partition.to());
+            } else if (partition.from().isBefore(trimBefore)) {
+                trimBefore = partition.from();
+            }
+        }
+        int defaultRows = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?", trimBefore);
+        int rollups = rollupRepository.deleteByBucketStartBefore(trimBefore);
+        if (defaultRows > 0 || rollups > 0) {
+            log.info("Deleted {} default-partition rows and {} rollup buckets older than {}",
+                defaultRows, rollups, trimBefore);
+        }
+    }
+
+    private List<Partition> loadPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = '" + PARENT_TABLE + "'::regclass",
+            rs -> {
+                Matcher bound = RANGE_BOUND.matcher(rs.getString(2));
+                if (bound.matches()) {
+                    partitions.add(new Partition(rs.getString(1), parseBound(bound.group(1)), parseBound(bound.group(2))));
+                }
+            });
+        return partitions;
+    }
+
+    // Each step runs in its own transaction so a lock timeout only postpones that step to the next run
+    private void runLocked(Runnable step) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", ADVISORY_LOCK_KEY);
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                step.run();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Measurement partition maintenance failed, retrying on the next run", e);
+        }
+    }
+
+    private LocalDateTime truncate(LocalDateTime timestamp) {
+        LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return interval == ChronoUnit.MONTHS ? day.withDayOfMonth(1) : day;
+    }
+
+    private static LocalDateTime parseBound(String bound) {
+        return LocalDateTime.parse(bound.replace(' ', 'T'));
+    }
+
+    private record Partition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.roomsensors.roomsensors.service;
+
+/**
+ * Fixed-capacity ring of the newest readings of one sensor, kept in primitive arrays ordered by
+ * (timestamp, id). Timestamps are epoch microseconds and values are hundredths, so a reading costs
+ * 24 bytes and no objects. When full, the oldest reading is overwritten.
+ */
+public class MeasurementRingBuffer {
+
+    private final long[] ids;
+    private final long[] timestamps;
+    private final int[] temperatures;
+    private final int[] humidities;
+
+    // Physical index of the oldest reading
+    private int head;
+    private int size;
+
+    public MeasurementRingBuffer(int capacity) {
+        ids = new long[capacity];
+        timestamps = new long[capacity];
+        temperatures = new int[capacity];
+        humidities = new int[capacity];
+    }
+
+    public synchronized void add(long id, long timestamp, int temperature, int humidity) {
+        // Readings almost always arrive in order, so the scan from the newest end stops immediately
+        int position = size;
+        while (position > 0) {
+            int previous = physical(position - 1);
+            if (timestamps[previous] < timestamp || (timestamps[previous] == timestamp && ids[previous] < id)) {
+                break;
+            }
+            if (timestamps[previous] == timestamp && ids[previous] == id) {
+                return;
+            }
+            position--;
+        }
+
+        if (size == ids.length) {
+            if (position == 0) {
+                return;
+            }
+            head = physical(1);
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            copy(physical(i - 1), physical(i));
+        }
+        int target = physical(position);
+        ids[target] = id;
+        timestamps[target] = timestamp;
+        temperatures[target] = temperature;
+        humidities[target] = humidity;
+        size++;
+    }
+
+    public synchronized boolean remove(long id) {
+        for (int position = 0; position < size; position++) {
+            if (ids[physical(position)] == id) {
+                for (int i = position; i < size - 1; i++) {
+                    copy(physical(i + 1), physical(i));
+                }
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the readings with a timestamp at or after {@code fromTimestamp}, oldest first, and at most the
+     * newest {@code limit} of them.
+     */
+    public synchronized Snapshot since(long fromTimestamp, int limit) {
+        int start = size;
+        while (start > 0 && size - start < limit && timestamps[physical(start - 1)] >= fromTimestamp) {
+            start--;
+        }
+
+        Snapshot snapshot = new Snapshot(size - start);
+        for (int i = 0; i < snapshot.count; i++) {
+            int source = physical(start + i);
+            snapshot.ids[i] = ids[source];
+            snapshot.timestamps[i] = timestamps[source];
+            snapshot.temperatures[i] = temperatures[source];
+            snapshot.humidities[i] = humidities[source];
+        }
+        return snapshot;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int physical(int position) {
+        int index = head + position;
+        return index >= ids.length ? index - ids.length : index;
+    }
+
+    private void copy(int from, int to) {
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        temperatures[to] = temperatures[from];
+        humidities[to] = humidities[from];
+    }
+
+    public static final class Snapshot {
+
+        private final int count;
+        private final long[] ids;
+        private final long[] timestamps;
+        private final int[] temperatures;
+        private final int[] humidities;
+
+        private Snapshot(int count) {
+            this.count = count;
+            ids = new long[count];
+            timestamps = new long[count];
+            temperatures = new int[count];
+            humidities = new int[count];
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getId(int index) {
+            return ids[index];
+        }
+
+        public long getTimestamp(int index) {
+            return timestamps[index];
+        }
+
+        public int getTemperature(int index) {
+            return temperatures[index];
+        }
+
+        public int getHumidity(int index) {
+            return humidities[index];
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementCompactionRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds rollups on startup for sensors whose measurements predate the rollup tables.
+ */
+@Component
+public class MeasurementRollupBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementRollupBackfill.class);
+
+    @Autowired
+    private MeasurementRollupService rollupService;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private MeasurementRollupRepository rollupRepository;
+
+    @Autowired
+    private MeasurementCompactionRepository compactionRepository;
+
+    @Autowired
+    private MeasurementColdStore coldStore;
+
+    @Value("${measurements.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!rollupService.isEnabled() || !backfillOnStartup) {
+            return;
+        }
+
+        // A sensor whose measurements have all been sealed has none left in the measurements table
+        Set<Long> sensorIds = new TreeSet<>(measurementRepository.findDistinctSensorIds());
+        sensorIds.addAll(coldStore.findSensorIds());
+        for (Long sensorId : sensorIds) {
+            // Rollups of a compacted sensor cannot be rebuilt from what is left of its raw measurements
+            if (!rollupRepository.existsBySensorId(sensorId) && !compactionRepository.existsById(sensorId)) {
+                log.info("Building measurement rollups for sensor {}", sensorId);
+                rollupService.rebuild(sensorId);
+            }
+        }
+    }
+}
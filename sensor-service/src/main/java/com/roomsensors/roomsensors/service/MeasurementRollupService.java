@@ -0,0 +1,392 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.model.Measurement;
+import com.roomsensors.roomsensors.model.MeasurementCompaction;
+import com.roomsensors.roomsensors.model.MeasurementRollup;
+import com.roomsensors.roomsensors.repository.MeasurementAggregate;
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementCompactionRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRollupBucketWriter;
+import com.roomsensors.roomsensors.repository.MeasurementRollupRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains per-sensor minute, hour and day rollups of temperature and humidity and answers range
+ * aggregates from the coarsest buckets that fit, scanning raw rows only for the sub-minute edges.
+ */
+@Service
+@Transactional
+public class MeasurementRollupService {
+
+    private static final int REBUILD_FLUSH_SIZE = 500;
+
+    // Locks are always taken in this order to keep concurrent ingest transactions from deadlocking
+    private static final Comparator<BucketKey> BUCKET_ORDER = Comparator
+        .comparing(BucketKey::sensorId)
+        .thenComparing(BucketKey::resolution)
+        .thenComparing(BucketKey::bucketStart);
+
+    @Autowired
+    private MeasurementRollupRepository rollupRepository;
+
+    @Autowired
+    private MeasurementRepository measurementRepository;
+
+    @Autowired
+    private MeasurementCompactionRepository compactionRepository;
+
+    @Autowired
+    private MeasurementColdStore coldStore;
+
+    @Autowired
+    private MeasurementRollupBucketWriter bucketWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${measurements.rollup.enabled:true}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds freshly inserted measurements to their buckets within the caller's transaction.
+     */
+    public void record(Collection<Measurement> measurements) {
+        if (!enabled || measurements.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, BucketDelta> deltas = new TreeMap<>(BUCKET_ORDER);
+        for (Measurement measurement : measurements) {
+            Long sensorId = measurement.getSensor().getId();
+            for (BucketResolution resolution : BucketResolution.values()) {
+                BucketKey key = new BucketKey(sensorId, resolution, resolution.truncate(measurement.getTimestamp()));
+                deltas.computeIfAbsent(key, k -> new BucketDelta())
+                    .add(measurement.getTemperature(), measurement.getHumidity());
+            }
+        }
+
+        // Missing buckets are created before any is updated and, like the updates, in BUCKET_ORDER, so
+        // concurrent ingest transactions take their rollup row locks in the same order
+        createMissingBuckets(deltas.keySet());
+
+        for (Map.Entry<BucketKey, BucketDelta> entry : deltas.entrySet()) {
+            BucketKey key = entry.getKey();
+            BucketDelta delta = entry.getValue();
+            rollupRepository.addToBucket(key.sensorId(), key.resolution(), key.bucketStart(),
+                delta.count, delta.temperatureSum, delta.temperatureMin, delta.temperatureMax,
+                delta.humiditySum, delta.humidityMin, delta.humidityMax);
+        }
+    }
+
+    /**
+     * Recomputes the buckets containing {@code timestamp} after a measurement was removed.
+     */
+    public void refresh(Long sensorId, LocalDateTime timestamp) {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime minute = BucketResolution.MINUTE.truncate(timestamp);
+        overwriteBucket(sensorId, BucketResolution.MINUTE, minute,
+            aggregateRawRange(sensorId, minute, BucketResolution.MINUTE.next(minute)));
+
+        for (BucketResolution resolution : List.of(BucketResolution.HOUR, BucketResolution.DAY)) {
+            LocalDateTime bucketStart = resolution.truncate(timestamp);
+            overwriteBucket(sensorId, resolution, bucketStart,
+                rollupRepository.aggregateBuckets(sensorId, resolution.finer(), bucketStart, resolution.next(bucketStart)));
+        }
+    }
+
+    /**
+     * Discards and recomputes every bucket of a sensor from its raw measurements, including those in cold storage.
+     */
+    public void rebuild(Long sensorId) {
+        rollupRepository.deleteBySensorId(sensorId);
+
+        Map<LocalDateTime, BucketDelta> minutes = new HashMap<>();
+        try (Stream<Object[]> rows = measurementRepository.streamValuesBySensorId(sensorId)) {
+            rows.forEach(row -> minutes
+                .computeIfAbsent(BucketResolution.MINUTE.truncate((LocalDateTime) row[0]), k -> new BucketDelta())
+                .add((BigDecimal) row[1], (BigDecimal) row[2]));
+        }
+        MeasurementColdStore.RowCursor cold = coldStore.open(sensorId);
+        while (cold.next()) {
+            LocalDateTime minute = MeasurementRowReader.toLocalDateTime(BucketResolution.MINUTE.truncate(cold.epochMicros()));
+            minutes.computeIfAbsent(minute, k -> new BucketDelta())
+                .add(BigDecimal.valueOf(cold.temperature(), 2), BigDecimal.valueOf(cold.humidity(), 2));
+        }
+
+        Map<LocalDateTime, BucketDelta> current = minutes;
+        int pending = 0;
+        for (BucketResolution resolution : BucketResolution.values()) {
+            Map<LocalDateTime, BucketDelta> coarser = new HashMap<>();
+            for (Map.Entry<LocalDateTime, BucketDelta> entry : current.entrySet()) {
+                entityManager.persist(entry.getValue().toRollup(sensorId, resolution, entry.getKey()));
+                if (++pending % REBUILD_FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+                if (resolution != BucketResolution.DAY) {
+                    BucketResolution next = BucketResolution.values()[resolution.ordinal() + 1];
+                    coarser.computeIfAbsent(next.truncate(entry.getKey()), k -> new BucketDelta())
+                        .merge(entry.getValue());
+                }
+            }
+            current = coarser;
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Aggregates the inclusive range [start, end] for a sensor. Whole days, hours and minutes are read
+     * from rollups; only the partial minutes at either edge are read from raw measurements. Before the
+     * sensor's compaction checkpoint there are no raw measurements to read, so there the range covers the
+     * compacted buckets that start within it, as the compacted readings returned by range queries do.
+     */
+    @Transactional(readOnly = true)
+    public MeasurementAggregate aggregate(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return aggregateRaw(sensorId, start, end);
+        }
+
+        BucketDelta total = new BucketDelta();
+        if (end.isBefore(start)) {
+            return total;
+        }
+
+        MeasurementCompaction compaction = compactionRepository.findById(sensorId).orElse(null);
+        if (compaction != null && start.isBefore(compaction.getCompactedUntil())) {
+            BucketResolution resolution = compaction.getResolution();
+            LocalDateTime compactedEnd = resolution.next(resolution.truncate(end));
+            if (compactedEnd.isAfter(compaction.getCompactedUntil())) {
+                compactedEnd = compaction.getCompactedUntil();
+            }
+            addBuckets(total, sensorId, resolution.ceil(start), compactedEnd, BucketResolution.DAY);
+            if (end.isBefore(compaction.getCompactedUntil())) {
+                return total;
+            }
+            start = compaction.getCompactedUntil();
+        }
+
+        LocalDateTime coveredStart = BucketResolution.MINUTE.ceil(start);
+        LocalDateTime coveredEnd = BucketResolution.MINUTE.truncate(end);
+        if (!coveredStart.isBefore(coveredEnd)) {
+            total.merge(aggregateRaw(sensorId, start, end));
+            return total;
+        }
+
+        if (start.isBefore(coveredStart)) {
+            total.merge(aggregateRawRange(sensorId, start, coveredStart));
+        }
+        addBuckets(total, sensorId, coveredStart, coveredEnd, BucketResolution.DAY);
+        total.merge(aggregateRaw(sensorId, coveredEnd, end));
+        return total;
+    }
+
+    // Raw measurements in [start, end], from the measurements table and the cold store
+    private MeasurementAggregate aggregateRaw(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        MeasurementAggregate table = measurementRepository.aggregateBySensorIdAndTimestampBetween(sensorId, start, end);
+        if (!coldStore.isEnabled()) {
+            return table;
+        }
+        BucketDelta total = new BucketDelta();
+        total.merge(table);
+        total.merge(coldStore.aggregate(sensorId, start, end));
+        return total;
+    }
+
+    // Raw measurements in [start, end); timestamps have microsecond precision
+    private MeasurementAggregate aggregateRawRange(Long sensorId, LocalDateTime start, LocalDateTime end) {
+        MeasurementAggregate table = measurementRepository.aggregateBySensorIdAndTimestampRange(sensorId, start, end);
+        if (!coldStore.isEnabled()) {
+            return table;
+        }
+        BucketDelta total = new BucketDelta();
+        total.merge(table);
+        total.merge(coldStore.aggregate(sensorId, start, end.minusNanos(1000)));
+        return total;
+    }
+
+    private void addBuckets(BucketDelta total, Long sensorId, LocalDateTime start, LocalDateTime end,
+                            BucketResolution resolution) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        if (resolution == BucketResolution.MINUTE) {
+            total.merge(rollupRepository.aggregateBuckets(sensorId, resolution, start, end));
+            return;
+        }
+
+        LocalDateTime alignedStart = resolution.ceil(start);
+        LocalDateTime alignedEnd = resolution.truncate(end);
+        if (!alignedStart.isBefore(alignedEnd)) {
+            addBuckets(total, sensorId, start, end, resolution.finer());
+            return;
+        }
+
+        addBuckets(total, sensorId, start, alignedStart, resolution.finer());
+        total.merge(rollupRepository.aggregateBuckets(sensorId, resolution, alignedStart, alignedEnd));
+        addBuckets(total, sensorId, alignedEnd, end, resolution.finer());
+    }
+
+    private void createMissingBuckets(Set<BucketKey> keys) {
+        Map<Long, List<BucketKey>> keysBySensor = keys.stream()
+            .collect(Collectors.groupingBy(BucketKey::sensorId));
+
+        Set<BucketKey> existing = new HashSet<>();
+        for (Map.Entry<Long, List<BucketKey>> entry : keysBySensor.entrySet()) {
+            Set<LocalDateTime> starts = entry.getValue().stream()
+                .map(BucketKey::bucketStart)
+                .collect(Collectors.toSet());
+            for (Object[] row : rollupRepository.findExistingBuckets(entry.getKey(), starts)) {
+                existing.add(new BucketKey(entry.getKey(), (BucketResolution) row[0], (LocalDateTime) row[1]));
+            }
+        }
+
+        List<MeasurementRollupBucketWriter.Bucket> missing = new ArrayList<>();
+        for (BucketKey key : keys) {
+            if (!existing.contains(key)) {
+                missing.add(new MeasurementRollupBucketWriter.Bucket(key.sensorId(), key.resolution(), key.bucketStart()));
+            }
+        }
+        bucketWriter.createMissing(missing);
+    }
+
+    private void overwriteBucket(Long sensorId, BucketResolution resolution, LocalDateTime bucketStart,
+                                 MeasurementAggregate aggregate) {
+        rollupRepository.findBySensorIdAndResolutionAndBucketStart(sensorId, resolution, bucketStart)
+            .ifPresent(rollup -> {
+                BucketDelta delta = new BucketDelta();
+                delta.merge(aggregate);
+                delta.copyTo(rollup);
+            });
+    }
+
+    private record BucketKey(Long sensorId, BucketResolution resolution, LocalDateTime bucketStart) {
+    }
+
+    private static class BucketDelta implements MeasurementAggregate {
+        private long count;
+        private BigDecimal temperatureSum = BigDecimal.ZERO;
+        private BigDecimal temperatureMin;
+        private BigDecimal temperatureMax;
+        private BigDecimal humiditySum = BigDecimal.ZERO;
+        private BigDecimal humidityMin;
+        private BigDecimal humidityMax;
+
+        void add(BigDecimal temperature, BigDecimal humidity) {
+            count++;
+            temperatureSum = temperatureSum.add(temperature);
+            temperatureMin = min(temperatureMin, temperature);
+            temperatureMax = max(temperatureMax, temperature);
+            humiditySum = humiditySum.add(humidity);
+            humidityMin = min(humidityMin, humidity);
+            humidityMax = max(humidityMax, humidity);
+        }
+
+        void merge(MeasurementAggregate other) {
+            if (other == null || other.getSampleCount() == null || other.getSampleCount() == 0) {
+                return;
+            }
+            count += other.getSampleCount();
+            temperatureSum = temperatureSum.add(other.getTemperatureSum());
+            temperatureMin = min(temperatureMin, other.getTemperatureMin());
+            temperatureMax = max(temperatureMax, other.getTemperatureMax());
+            humiditySum = humiditySum.add(other.getHumiditySum());
+            humidityMin = min(humidityMin, other.getHumidityMin());
+            humidityMax = max(humidityMax, other.getHumidityMax());
+        }
+
+        void copyTo(MeasurementRollup rollup) {
+            rollup.setSampleCount(count);
+            rollup.setTemperatureSum(temperatureSum);
+            rollup.setTemperatureMin(temperatureMin);
+            rollup.setTemperatureMax(temperatureMax);
+            rollup.setHumiditySum(humiditySum);
+            rollup.setHumidityMin(humidityMin);
+            rollup.setHumidityMax(humidityMax);
+        }
+
+        MeasurementRollup toRollup(Long sensorId, BucketResolution resolution, LocalDateTime bucketStart) {
+            MeasurementRollup rollup = new MeasurementRollup(sensorId, resolution, bucketStart);
+            copyTo(rollup);
+            return rollup;
+        }
+
+        private static BigDecimal min(BigDecimal current, BigDecimal value) {
+            if (value == null) {
+                return current;
+            }
+            return current == null || value.compareTo(current) < 0 ? value : current;
+        }
+
+        private static BigDecimal max(BigDecimal current, BigDecimal value) {
+            if (value == null) {
+                return current;
+            }
+            return current == null || value.compareTo(current) > 0 ? value : current;
+        }
+
+        @Override
+        public Long getSampleCount() {
+            return count;
+        }
+
+        @Override
+        public BigDecimal getTemperatureSum() {
+            return temperatureSum;
+        }
+
+        @Override
+        public BigDecimal getTemperatureMin() {
+            return temperatureMin;
+        }
+
+        @Override
+        public BigDecimal getTemperatureMax() {
+            return temperatureMax;
+        }
+
+        @Override
+        public BigDecimal getHumiditySum() {
+            return humiditySum;
+        }
+
+        @Override
+        public BigDecimal getHumidityMin() {
+            return humidityMin;
+        }
+
+        @Override
+        public BigDecimal getHumidityMax() {
+            return humidityMax;
+        }
+    }
+}
@@ -1,90 +1,506 @@
 package com.roomsensors.roomsensors.service;
 
 import com.roomsensors.roomsensors.dto.AverageMeasurementDTO;
+import com.roomsensors.roomsensors.dto.MeasurementBatchItemResultDTO;
+import com.roomsensors.roomsensors.dto.MeasurementBatchResultDTO;
 import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.dto.MeasurementPageDTO;
+import com.roomsensors.roomsensors.dto.SensorDTO;
+import com.roomsensors.roomsensors.event.MeasurementDeletedEvent;
+import com.roomsensors.roomsensors.event.MeasurementsCreatedEvent;
 import com.roomsensors.roomsensors.model.Measurement;
+import com.roomsensors.roomsensors.model.MeasurementRollup;
 import com.roomsensors.roomsensors.model.Sensor;
+import com.roomsensors.roomsensors.repository.MeasurementAggregate;
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementCompactionRepository;
 import com.roomsensors.roomsensors.repository.MeasurementRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRollupRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
 import com.roomsensors.roomsensors.repository.SensorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MeasurementService {
     
+    // Binary frames: measurements columns are DECIMAL(5,2) and timestamps end at year 9999
+    private static final int MAX_SCALED_VALUE = 99_999;
+    private static final long MAX_EPOCH_MILLIS = 253_402_300_799_999L;
+    
+    // Keyset order of measurement pages; a compacted reading has no id and sorts before raw readings of its timestamp
+    private static final Comparator<MeasurementDTO> PAGE_ORDER = Comparator
+        .comparing(MeasurementDTO::getSensorId)
+        .thenComparing(MeasurementDTO::getTimestamp)
+        .thenComparing(dto -> dto.getId() != null ? dto.getId() : 0L);
+    
     @Autowired
     private MeasurementRepository measurementRepository;
     
     @Autowired
     private SensorRepository sensorRepository;
     
+    @Autowired
+    private SensorCache sensorCache;
+    
+    @Autowired
+    private MeasurementRollupService measurementRollupService;
+    
+    @Autowired
+    private MeasurementRollupRepository measurementRollupRepository;
+    
+    @Autowired
+    private MeasurementCompactionRepository measurementCompactionRepository;
+    
+    @Autowired
+    private MeasurementColdStore measurementColdStore;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${measurements.batch.max-size:10000}")
+    private int batchMaxSize;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int jdbcBatchSize;
+    
+    @Value("${measurements.page.default-size:100}")
+    private int defaultPageSize;
+    
+    @Value("${measurements.page.max-size:1000}")
+    private int maxPageSize;
+    
+    private Timer mappingTimer;
+    
+    @PostConstruct
+    public void init() {
+        mappingTimer = Timer.builder("dto.mapping")
+            .description("Time spent mapping measurement entities of one request to DTOs")
+            .tag("type", "MeasurementDTO")
+            .register(meterRegistry);
+    }
+    
     public List<MeasurementDTO> getAllMeasurements() {
-        return measurementRepository.findAll().stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        List<MeasurementDTO> measurements = withCompacted(convertToDTOs(measurementRepository.findAll()),
+            measurementRollupRepository.findAllCompacted());
+        List<MeasurementDTO> cold = new ArrayList<>();
+        for (Long sensorId : measurementColdStore.findSensorIds()) {
+            cold.addAll(readCold(sensorId, measurementColdStore.open(sensorId), null, Integer.MAX_VALUE));
+        }
+        return withCold(measurements, cold);
     }
     
     public MeasurementDTO getMeasurementById(Long id) {
-        Measurement measurement = measurementRepository.findById(id)
+        return measurementRepository.findById(id)
+            .map(this::convertToDTO)
+            .or(() -> measurementColdStore.findById(id).map(this::convertToDTO))
             .orElseThrow(() -> new RuntimeException("Measurement not found with id: " + id));
-        return convertToDTO(measurement);
     }
     
     public MeasurementDTO createMeasurement(MeasurementDTO measurementDTO) {
-        Sensor sensor = sensorRepository.findById(measurementDTO.getSensorId())
-            .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + measurementDTO.getSensorId()));
+        SensorDTO sensor = requireActiveSensor(measurementDTO.getSensorId());
         
-        if (!sensor.getActive()) {
-            throw new RuntimeException("Cannot create measurement for inactive sensor");
-        }
-        
-        Measurement measurement = convertToEntity(measurementDTO, sensor);
+        // A reference is enough to set the foreign key; the sensor row is never loaded
+        Measurement measurement = convertToEntity(measurementDTO, sensorRepository.getReferenceById(sensor.getId()));
         Measurement savedMeasurement = measurementRepository.save(measurement);
+        measurementRollupService.record(List.of(savedMeasurement));
+        eventPublisher.publishEvent(new MeasurementsCreatedEvent(List.of(savedMeasurement)));
         return convertToDTO(savedMeasurement);
     }
     
+    public MeasurementBatchResultDTO createMeasurements(List<MeasurementDTO> measurementDTOs) {
+        if (measurementDTOs.size() > batchMaxSize) {
+            throw new RuntimeException("Batch contains " + measurementDTOs.size()
+                + " measurements, maximum is " + batchMaxSize);
+        }
+        
+        // Resolve each referenced sensor once per batch, from the sensor cache
+        Map<Long, SensorDTO> sensors = new HashMap<>();
+        for (MeasurementDTO dto : measurementDTOs) {
+            if (dto != null && dto.getSensorId() != null && !sensors.containsKey(dto.getSensorId())) {
+                sensors.put(dto.getSensorId(), sensorCache.find(dto.getSensorId()).orElse(null));
+            }
+        }
+        
+        return persistBatch(measurementDTOs.size(),
+            i -> validateForBatch(measurementDTOs.get(i), sensors),
+            i -> convertToEntity(measurementDTOs.get(i),
+                sensorRepository.getReferenceById(measurementDTOs.get(i).getSensorId())));
+    }
+    
+    /**
+     * Bulk insert from a binary frame. Readings are validated on their primitive values and turned straight
+     * into entities, without a DTO or bean validation per reading.
+     */
+    public MeasurementBatchResultDTO createMeasurements(MeasurementFrame frame) {
+        if (frame.size() > batchMaxSize) {
+            throw new RuntimeException("Batch contains " + frame.size()
+                + " measurements, maximum is " + batchMaxSize);
+        }
+        
+        Map<Long, SensorDTO> sensors = new HashMap<>();
+        for (int i = 0; i < frame.size(); i++) {
+            Long sensorId = frame.sensorId(i);
+            if (!sensors.containsKey(sensorId)) {
+                sensors.put(sensorId, sensorCache.find(sensorId).orElse(null));
+            }
+        }
+        
+        return persistBatch(frame.size(),
+            i -> validateForBatch(frame, i, sensors),
+            i -> convertToEntity(frame, i, sensorRepository.getReferenceById(frame.sensorId(i))));
+    }
+    
     public List<MeasurementDTO> getMeasurementsBySensor(Long sensorId) {
-        Sensor sensor = sensorRepository.findById(sensorId)
-            .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + sensorId));
+        requireSensor(sensorId);
+        Sensor sensor = sensorRepository.getReferenceById(sensorId);
         
-        return measurementRepository.findBySensor(sensor).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        List<MeasurementDTO> measurements = withCompacted(convertToDTOs(measurementRepository.findBySensor(sensor)),
+            measurementRollupRepository.findCompactedBySensorId(sensorId));
+        return withCold(measurements,
+            readCold(sensorId, measurementColdStore.open(sensorId), null, Integer.MAX_VALUE));
     }
     
     public List<MeasurementDTO> getMeasurementsBySensorAndTimeRange(Long sensorId, LocalDateTime start, LocalDateTime end) {
-        Sensor sensor = sensorRepository.findById(sensorId)
-            .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + sensorId));
+        requireSensor(sensorId);
+        Sensor sensor = sensorRepository.getReferenceById(sensorId);
         
-        return measurementRepository.findBySensorAndTimestampBetween(sensor, start, end).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        List<MeasurementDTO> measurements = withCompacted(
+            convertToDTOs(measurementRepository.findBySensorAndTimestampBetween(sensor, start, end)),
+            measurementRollupRepository.findCompactedBySensorId(sensorId, start, end, Pageable.unpaged()));
+        return withCold(measurements,
+            readCold(sensorId, measurementColdStore.open(sensorId, start, end), null, Integer.MAX_VALUE));
+    }
+    
+    public MeasurementPageDTO getMeasurementsBySensorAndTimeRange(Long sensorId, LocalDateTime start, LocalDateTime end,
+                                                                  String cursor, Integer limit) {
+        requireSensor(sensorId);
+        
+        int pageSize = resolvePageSize(limit);
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+        MeasurementCursor after = null;
+        List<Measurement> rows;
+        List<MeasurementRollup> compacted;
+        if (cursor == null || cursor.isBlank()) {
+            rows = measurementRepository.findPageBySensorId(sensorId, start, end, fetch);
+            compacted = measurementRollupRepository.findCompactedBySensorId(sensorId, start, end, fetch);
+        } else {
+            after = MeasurementCursor.decode(cursor);
+            if (!sensorId.equals(after.getSensorId())) {
+                throw new RuntimeException("Cursor does not belong to sensor " + sensorId);
+            }
+            rows = measurementRepository.findPageBySensorIdAfter(sensorId, start, end,
+                after.getTimestamp(), after.getId(), fetch);
+            compacted = measurementRollupRepository.findCompactedBySensorIdAfter(sensorId, start, end,
+                after.getTimestamp(), fetch);
+        }
+        List<MeasurementDTO> cold = readColdPage(sensorId, start, end, after, pageSize + 1);
+        return toPage(rows, compacted, cold, pageSize);
+    }
+    
+    public MeasurementPageDTO getMeasurementPage(LocalDateTime start, LocalDateTime end, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+        MeasurementCursor after = null;
+        List<Measurement> rows;
+        List<MeasurementRollup> compacted;
+        if (cursor == null || cursor.isBlank()) {
+            rows = measurementRepository.findPage(start, end, fetch);
+            compacted = measurementRollupRepository.findCompacted(start, end, fetch);
+        } else {
+            after = MeasurementCursor.decode(cursor);
+            rows = measurementRepository.findPageAfter(start, end,
+                after.getSensorId(), after.getTimestamp(), after.getId(), fetch);
+            compacted = measurementRollupRepository.findCompactedAfter(start, end,
+                after.getSensorId(), after.getTimestamp(), fetch);
+        }
+        
+        // Cold rows in page order: sensor by sensor, from the cursor position on
+        List<MeasurementDTO> cold = new ArrayList<>();
+        for (Long sensorId : measurementColdStore.findSensorIds(start, end)) {
+            if (cold.size() > pageSize) {
+                break;
+            }
+            if (after == null || sensorId >= after.getSensorId()) {
+                cold.addAll(readColdPage(sensorId, start, end, after, pageSize + 1 - cold.size()));
+            }
+        }
+        return toPage(rows, compacted, cold, pageSize);
     }
     
     public AverageMeasurementDTO getAverageMeasurements(Long sensorId, LocalDateTime start, LocalDateTime end) {
-        Sensor sensor = sensorRepository.findById(sensorId)
-            .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + sensorId));
+        requireSensor(sensorId);
         
-        Double avgTemp = measurementRepository.findAverageTemperatureBySensorAndTimestampBetween(sensor, start, end)
-            .orElse(0.0);
-        Double avgHumidity = measurementRepository.findAverageHumidityBySensorAndTimestampBetween(sensor, start, end)
-            .orElse(0.0);
+        MeasurementAggregate aggregate = measurementRollupService.aggregate(sensorId, start, end);
+        long count = aggregate.getSampleCount() != null ? aggregate.getSampleCount() : 0;
+        Double avgTemp = count > 0 ? aggregate.getTemperatureSum().doubleValue() / count : 0.0;
+        Double avgHumidity = count > 0 ? aggregate.getHumiditySum().doubleValue() / count : 0.0;
         
         return new AverageMeasurementDTO(avgTemp, avgHumidity);
     }
     
     public void deleteMeasurement(Long id) {
-        if (!measurementRepository.existsById(id)) {
-            throw new RuntimeException("Measurement not found with id: " + id);
+        Measurement measurement = measurementRepository.findById(id)
+            .orElseThrow(() -> measurementColdStore.findById(id).isPresent()
+                ? new RuntimeException("Measurement " + id + " is stored in a sealed segment and cannot be deleted")
+                : new RuntimeException("Measurement not found with id: " + id));
+        // The rollups of a compacted interval can no longer be recomputed without this reading
+        measurementCompactionRepository.findById(measurement.getSensor().getId())
+            .filter(compaction -> measurement.getTimestamp().isBefore(compaction.getCompactedUntil()))
+            .ifPresent(compaction -> {
+                throw new RuntimeException("Measurement " + id + " belongs to a compacted interval and cannot be deleted");
+            });
+        measurementRepository.deleteByIdAndTimestamp(measurement.getId(), measurement.getTimestamp());
+        measurementRollupService.refresh(measurement.getSensor().getId(), measurement.getTimestamp());
+        eventPublisher.publishEvent(new MeasurementDeletedEvent(
+            measurement.getSensor().getId(), measurement.getId(), measurement.getTimestamp()));
+    }
+    
+    private SensorDTO requireSensor(Long sensorId) {
+        return sensorCache.find(sensorId)
+            .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + sensorId));
+    }
+    
+    SensorDTO requireActiveSensor(Long sensorId) {
+        SensorDTO sensor = requireSensor(sensorId);
+        if (!sensor.getActive()) {
+            throw new RuntimeException("Cannot create measurement for inactive sensor");
+        }
+        return sensor;
+    }
+    
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new RuntimeException("Limit must be at least 1");
         }
-        measurementRepository.deleteById(id);
+        return Math.min(limit, maxPageSize);
+    }
+    
+    private MeasurementPageDTO toPage(List<Measurement> rows, List<MeasurementRollup> compacted,
+                                      List<MeasurementDTO> cold, int pageSize) {
+        List<MeasurementDTO> items = withCold(withCompacted(convertToDTOs(rows), compacted), cold);
+        
+        // One extra row is fetched to learn whether another page exists without a count query
+        boolean hasMore = items.size() > pageSize;
+        List<MeasurementDTO> page = hasMore ? items.subList(0, pageSize) : items;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            MeasurementDTO last = page.get(page.size() - 1);
+            nextCursor = new MeasurementCursor(last.getSensorId(), last.getTimestamp(),
+                last.getId() != null ? last.getId() : 0L).encode();
+        }
+        
+        return new MeasurementPageDTO(page, nextCursor);
+    }
+    
+    // Merges the compacted readings of a range into its raw readings, which are kept as they are if nothing is compacted
+    private List<MeasurementDTO> withCompacted(List<MeasurementDTO> raw, List<MeasurementRollup> compacted) {
+        if (compacted.isEmpty()) {
+            return raw;
+        }
+        List<MeasurementDTO> merged = new ArrayList<>(raw.size() + compacted.size());
+        merged.addAll(raw);
+        for (MeasurementRollup rollup : compacted) {
+            merged.add(convertToDTO(rollup));
+        }
+        merged.sort(PAGE_ORDER);
+        return merged;
+    }
+    
+    // Cold rows are read after the table rows, so a range sealed in between shows up in both and is kept once
+    private List<MeasurementDTO> withCold(List<MeasurementDTO> measurements, List<MeasurementDTO> cold) {
+        if (cold.isEmpty()) {
+            return measurements;
+        }
+        List<MeasurementDTO> merged = new ArrayList<>(measurements.size() + cold.size());
+        merged.addAll(measurements);
+        merged.addAll(cold);
+        merged.sort(PAGE_ORDER);
+        for (int i = merged.size() - 1; i > 0; i--) {
+            Long id = merged.get(i).getId();
+            if (id != null && id.equals(merged.get(i - 1).getId())) {
+                merged.remove(i);
+            }
+        }
+        return merged;
+    }
+    
+    private List<MeasurementDTO> readColdPage(Long sensorId, LocalDateTime start, LocalDateTime end,
+                                              MeasurementCursor after, int limit) {
+        if (after == null || !sensorId.equals(after.getSensorId())) {
+            return readCold(sensorId, measurementColdStore.open(sensorId, start, end), null, limit);
+        }
+        LocalDateTime from = after.getTimestamp().isAfter(start) ? after.getTimestamp() : start;
+        return readCold(sensorId, measurementColdStore.open(sensorId, from, end), after, limit);
+    }
+    
+    // Up to limit rows of the cursor, skipping those up to and including the page cursor position
+    private List<MeasurementDTO> readCold(Long sensorId, MeasurementColdStore.RowCursor rows, MeasurementCursor after,
+                                          int limit) {
+        long afterMicros = after != null ? MeasurementRowReader.toEpochMicros(after.getTimestamp()) : Long.MIN_VALUE;
+        long afterId = after != null ? after.getId() : Long.MIN_VALUE;
+        List<MeasurementDTO> measurements = new ArrayList<>();
+        while (measurements.size() < limit && rows.next()) {
+            if (rows.epochMicros() < afterMicros || rows.epochMicros() == afterMicros && rows.id() <= afterId) {
+                continue;
+            }
+            measurements.add(convertToDTO(rows.id(), sensorId, rows.epochMicros(), rows.temperature(), rows.humidity()));
+        }
+        return measurements;
+    }
+    
+    private MeasurementBatchResultDTO persistBatch(int size, IntFunction<String> validation,
+                                                   IntFunction<Measurement> entities) {
+        List<MeasurementBatchItemResultDTO> results = new ArrayList<>(size);
+        List<Measurement> created = new ArrayList<>(size);
+        List<Measurement> pending = new ArrayList<>(jdbcBatchSize);
+        List<Integer> pendingIndexes = new ArrayList<>(jdbcBatchSize);
+        
+        for (int i = 0; i < size; i++) {
+            String error = validation.apply(i);
+            if (error != null) {
+                results.add(MeasurementBatchItemResultDTO.rejected(i, error));
+                continue;
+            }
+            
+            Measurement measurement = entities.apply(i);
+            entityManager.persist(measurement);
+            results.add(null);
+            created.add(measurement);
+            pending.add(measurement);
+            pendingIndexes.add(i);
+            
+            if (pending.size() >= jdbcBatchSize) {
+                flushBatch(pending, pendingIndexes, results);
+            }
+        }
+        flushBatch(pending, pendingIndexes, results);
+        measurementRollupService.record(created);
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new MeasurementsCreatedEvent(created));
+        }
+        
+        return new MeasurementBatchResultDTO(results);
+    }
+    
+    private String validateForBatch(MeasurementDTO dto, Map<Long, SensorDTO> sensors) {
+        if (dto == null) {
+            return "Measurement is required";
+        }
+        
+        Set<ConstraintViolation<MeasurementDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        
+        SensorDTO sensor = sensors.get(dto.getSensorId());
+        if (sensor == null) {
+            return "Sensor not found with id: " + dto.getSensorId();
+        }
+        if (!sensor.getActive()) {
+            return "Cannot create measurement for inactive sensor";
+        }
+        return null;
+    }
+    
+    private String validateForBatch(MeasurementFrame frame, int index, Map<Long, SensorDTO> sensors) {
+        String rangeError = validateRange(frame, index);
+        if (rangeError != null) {
+            return rangeError;
+        }
+        
+        SensorDTO sensor = sensors.get(frame.sensorId(index));
+        if (sensor == null) {
+            return "Sensor not found with id: " + frame.sensorId(index);
+        }
+        if (!sensor.getActive()) {
+            return "Cannot create measurement for inactive sensor";
+        }
+        return null;
+    }
+    
+    // Both bounds are compared explicitly: Math.abs of Long.MIN_VALUE and Integer.MIN_VALUE stays negative
+    static String validateRange(MeasurementFrame frame, int index) {
+        long epochMillis = frame.epochMillis(index);
+        if (epochMillis < -MAX_EPOCH_MILLIS || epochMillis > MAX_EPOCH_MILLIS) {
+            return "Timestamp is out of range";
+        }
+        int temperature = frame.temperature(index);
+        if (temperature < -MAX_SCALED_VALUE || temperature > MAX_SCALED_VALUE) {
+            return "Temperature is out of range";
+        }
+        int humidity = frame.humidity(index);
+        if (humidity < -MAX_SCALED_VALUE || humidity > MAX_SCALED_VALUE) {
+            return "Humidity is out of range";
+        }
+        return null;
+    }
+    
+    private void flushBatch(List<Measurement> pending, List<Integer> pendingIndexes,
+                            List<MeasurementBatchItemResultDTO> results) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        // Sends the queued inserts as one JDBC batch and keeps the persistence context small
+        entityManager.flush();
+        entityManager.clear();
+        
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            results.set(index, MeasurementBatchItemResultDTO.accepted(index, pending.get(i).getId()));
+        }
+        pending.clear();
+        pendingIndexes.clear();
+    }
+    
+    private List<MeasurementDTO> convertToDTOs(List<Measurement> measurements) {
+        return mappingTimer.record(() -> measurements.stream()
+            .map(this::convertToDTO)
+            .collect(Collectors.toList()));
     }
     
     private MeasurementDTO convertToDTO(Measurement measurement) {
@@ -97,6 +513,47 @@ public class MeasurementService {
         return dto;
     }
     
+    private MeasurementDTO convertToDTO(MeasurementColdStore.ColdMeasurement measurement) {
+        return convertToDTO(measurement.id(), measurement.sensorId(), measurement.epochMicros(),
+            measurement.temperature(), measurement.humidity());
+    }
+    
+    private MeasurementDTO convertToDTO(long id, long sensorId, long epochMicros, int temperature, int humidity) {
+        MeasurementDTO dto = new MeasurementDTO();
+        dto.setId(id);
+        dto.setSensorId(sensorId);
+        dto.setTimestamp(MeasurementRowReader.toLocalDateTime(epochMicros));
+        dto.setTemperature(BigDecimal.valueOf(temperature, 2));
+        dto.setHumidity(BigDecimal.valueOf(humidity, 2));
+        return dto;
+    }
+    
+    private MeasurementDTO convertToDTO(MeasurementRollup rollup) {
+        BigDecimal count = BigDecimal.valueOf(rollup.getSampleCount());
+        MeasurementDTO dto = new MeasurementDTO();
+        dto.setSensorId(rollup.getSensorId());
+        dto.setTimestamp(rollup.getBucketStart());
+        dto.setTemperature(rollup.getTemperatureSum().divide(count, 2, RoundingMode.HALF_UP));
+        dto.setHumidity(rollup.getHumiditySum().divide(count, 2, RoundingMode.HALF_UP));
+        dto.setSampleCount(rollup.getSampleCount());
+        dto.setTemperatureMin(rollup.getTemperatureMin());
+        dto.setTemperatureMax(rollup.getTemperatureMax());
+        dto.setHumidityMin(rollup.getHumidityMin());
+        dto.setHumidityMax(rollup.getHumidityMax());
+        return dto;
+    }
+    
+    private Measurement convertToEntity(MeasurementFrame frame, int index, Sensor sensor) {
+        long millis = frame.epochMillis(index);
+        Measurement measurement = new Measurement();
+        measurement.setSensor(sensor);
+        // Stored like every other timestamp in this service: local time of the system zone
+        measurement.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+        measurement.setTemperature(BigDecimal.valueOf(frame.temperature(index), 2));
+        measurement.setHumidity(BigDecimal.valueOf(frame.humidity(index), 2));
+        return measurement;
+    }
+    
     private Measurement convertToEntity(MeasurementDTO dto, Sensor sensor) {
         Measurement measurement = new Measurement();
         measurement.setSensor(sensor);
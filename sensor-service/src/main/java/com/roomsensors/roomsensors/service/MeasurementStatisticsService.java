@@ -0,0 +1,105 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.dto.MeasurementStatisticsBucketDTO;
+import com.roomsensors.roomsensors.dto.MeasurementStatisticsDTO;
+import com.roomsensors.roomsensors.model.BucketResolution;
+import com.roomsensors.roomsensors.repository.MeasurementHistoryReader;
+import com.roomsensors.roomsensors.repository.MeasurementRowReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@Transactional(readOnly = true)
+public class MeasurementStatisticsService {
+    
+    @Autowired
+    private MeasurementHistoryReader measurementHistoryReader;
+    
+    @Autowired
+    private SensorCache sensorCache;
+    
+    @Autowired
+    private MeasurementCompactionService measurementCompactionService;
+    
+    @Value("${measurements.statistics.max-buckets:10000}")
+    private long maxBuckets;
+    
+    public MeasurementStatisticsDTO getStatistics(Long sensorId, LocalDateTime start, LocalDateTime end,
+                                                  BucketResolution groupBy) {
+        if (sensorCache.find(sensorId).isEmpty()) {
+            throw new RuntimeException("Sensor not found with id: " + sensorId);
+        }
+        if (end.isBefore(start)) {
+            throw new RuntimeException("Range end must not be before range start");
+        }
+        measurementCompactionService.requireRawHistory(sensorId, start);
+        if (groupBy != null && groupBy.getUnit().between(groupBy.truncate(start), end) >= maxBuckets) {
+            throw new RuntimeException("Range contains more than " + maxBuckets + " " + groupBy.name().toLowerCase()
+                + " buckets, use a coarser groupBy");
+        }
+        
+        MeasurementStatisticsDTO statistics = new MeasurementStatisticsDTO();
+        statistics.setSensorId(sensorId);
+        statistics.setStart(start);
+        statistics.setEnd(end);
+        statistics.setGroupBy(groupBy);
+        
+        // Rows arrive ordered by timestamp, so only the current bucket has to be kept in memory
+        StatisticsCollector collector = new StatisticsCollector(statistics, groupBy);
+        measurementHistoryReader.forEachRow(sensorId, start, end, collector);
+        collector.finishBucket();
+        
+        statistics.setCount(collector.temperature.getCount());
+        statistics.setTemperature(collector.temperature.toStatistics());
+        statistics.setHumidity(collector.humidity.toStatistics());
+        return statistics;
+    }
+    
+    private static final class StatisticsCollector implements MeasurementRowReader.RowHandler {
+        
+        private final MeasurementStatisticsDTO statistics;
+        private final BucketResolution groupBy;
+        private final MetricAccumulator temperature = new MetricAccumulator();
+        private final MetricAccumulator humidity = new MetricAccumulator();
+        private long bucketStart = Long.MIN_VALUE;
+        private MetricAccumulator bucketTemperature;
+        private MetricAccumulator bucketHumidity;
+        
+        StatisticsCollector(MeasurementStatisticsDTO statistics, BucketResolution groupBy) {
+            this.statistics = statistics;
+            this.groupBy = groupBy;
+        }
+        
+        @Override
+        public void row(long id, long epochMicros, int temperatureValue, int humidityValue) {
+            temperature.add(temperatureValue);
+            humidity.add(humidityValue);
+            
+            if (groupBy == null) {
+                return;
+            }
+            long rowBucket = groupBy.truncate(epochMicros);
+            if (rowBucket != bucketStart) {
+                finishBucket();
+                bucketStart = rowBucket;
+                bucketTemperature = new MetricAccumulator();
+                bucketHumidity = new MetricAccumulator();
+            }
+            bucketTemperature.add(temperatureValue);
+            bucketHumidity.add(humidityValue);
+        }
+        
+        void finishBucket() {
+            if (bucketTemperature == null) {
+                return;
+            }
+            statistics.getSeries().add(new MeasurementStatisticsBucketDTO(
+                MeasurementRowReader.toLocalDateTime(bucketStart), bucketTemperature.getCount(),
+                bucketTemperature.toStatistics(), bucketHumidity.toStatistics()));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.roomsensors.roomsensors.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roomsensors.roomsensors.dto.MeasurementDTO;
+import com.roomsensors.roomsensors.event.MeasurementsCreatedEvent;
+import com.roomsensors.roomsensors.exception.StreamCapacityException;
+import com.roomsensors.roomsensors.model.Measurement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Pushes committed measurements to Server-Sent Event subscribers. Each measurement is serialized into an
+ * SSE frame once and the same bytes are handed to every subscriber of its sensor. A subscriber owns a
+ * bounded buffer drained by its own virtual thread, so a slow client never delays ingestion or other
+ * subscribers: when its buffer is full the oldest frames are dropped ({@code drop-oldest}) or only the
+ * newest frame per sensor is kept ({@code coalesce}). Dropped frames are reported to the client with a
+ * {@code dropped} event. Idle streams get a comment frame every heartbeat interval, which also detects
+ * clients that went away.
+ */
+@Service
+public class MeasurementStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementStreamHub.class);
+
+    private static final byte[] HEARTBEAT_FRAME = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        COALESCE
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${measurements.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${measurements.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${measurements.stream.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    // Streams are completed after this long and EventSource clients reconnect
+    @Value("${measurements.stream.timeout:30m}")
+    private Duration timeout;
+
+    private final Set<Subscriber> allSensorSubscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, Set<Subscriber>> sensorSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadFactory drainerFactory = Thread.ofVirtual().name("measurement-stream-", 0).factory();
+
+    private Counter deliveredCounter;
+    private Counter droppedCounter;
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("measurements.stream.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Open measurement event streams")
+            .register(meterRegistry);
+        deliveredCounter = meterRegistry.counter("measurements.stream.events", "outcome", "delivered");
+        droppedCounter = meterRegistry.counter("measurements.stream.events", "outcome", "dropped");
+        coalescedCounter = meterRegistry.counter("measurements.stream.events", "outcome", "coalesced");
+    }
+
+    /**
+     * Opens a stream of the measurements of {@code sensorIds}, or of every sensor when the set is empty.
+     *
+     * @throws StreamCapacityException when {@code measurements.stream.max-subscribers} streams are open
+     */
+    public SseEmitter subscribe(Set<Long> sensorIds, OverflowPolicy policy) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new StreamCapacityException("Too many open measurement streams, retry later", 5);
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, sensorIds, policy);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        if (sensorIds.isEmpty()) {
+            allSensorSubscribers.add(subscriber);
+        } else {
+            // Added inside compute, so unregister cannot drop the set from the map between creating and adding
+            for (Long sensorId : sensorIds) {
+                sensorSubscribers.compute(sensorId, (id, set) -> {
+                    Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                    subscribers.add(subscriber);
+                    return subscribers;
+                });
+            }
+        }
+        // Commits the response headers right away, so clients and proxies see the stream as open
+        subscriber.offerHeartbeat();
+        drainerFactory.newThread(subscriber).start();
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMeasurementsCreated(MeasurementsCreatedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        for (Measurement measurement : event.getMeasurements()) {
+            Long sensorId = measurement.getSensor().getId();
+            Set<Subscriber> subscribers = sensorSubscribers.get(sensorId);
+            if ((subscribers == null || subscribers.isEmpty()) && allSensorSubscribers.isEmpty()) {
+                continue;
+            }
+            Frame frame = new Frame(sensorId, render(measurement));
+            if (subscribers != null) {
+                subscribers.forEach(subscriber -> subscriber.offer(frame));
+            }
+            allSensorSubscribers.forEach(subscriber -> subscriber.offer(frame));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${measurements.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        long idleSince = System.nanoTime() - Duration.ofMillis(heartbeatIntervalMs).toNanos();
+        forEachSubscriber(subscriber -> {
+            if (subscriber.lastWriteNanos < idleSince) {
+                subscriber.offerHeartbeat();
+            }
+        });
+    }
+
+    // Ends open streams before the web server's graceful shutdown starts waiting for active requests
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        Set<Subscriber> visited = new HashSet<>(allSensorSubscribers);
+        sensorSubscribers.values().forEach(visited::addAll);
+        visited.forEach(action);
+    }
+
+    private byte[] render(Measurement measurement) {
+        MeasurementDTO dto = new MeasurementDTO(measurement.getSensor().getId(), measurement.getTimestamp(),
+            measurement.getTemperature(), measurement.getHumidity());
+        dto.setId(measurement.getId());
+        try {
+            String json = objectMapper.writeValueAsString(dto);
+            return ("id:" + measurement.getId() + "\nevent:measurement\ndata:" + json + "\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        boolean removed;
+        if (subscriber.sensorIds.isEmpty()) {
+            removed = allSensorSubscribers.remove(subscriber);
+        } else {
+            removed = false;
+            for (Long sensorId : subscriber.sensorIds) {
+                Set<Subscriber> subscribers = sensorSubscribers.get(sensorId);
+                if (subscribers != null && subscribers.remove(subscriber)) {
+                    removed = true;
+                    sensorSubscribers.computeIfPresent(sensorId, (id, set) -> set.isEmpty() ? null : set);
+                }
+            }
+        }
+        if (removed) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private record Frame(Long sensorId, byte[] bytes) {
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Set<Long> sensorIds;
+        private final OverflowPolicy policy;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition ready = lock.newCondition();
+        // Frames in arrival order for DROP_OLDEST, newest frame per sensor for COALESCE
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private final Map<Long, Frame> latest = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private long dropped;
+        private boolean closed;
+
+        private volatile long lastWriteNanos = System.nanoTime();
+
+        Subscriber(SseEmitter emitter, Set<Long> sensorIds, OverflowPolicy policy) {
+            this.emitter = emitter;
+            this.sensorIds = Set.copyOf(sensorIds);
+            this.policy = policy;
+        }
+
+        void offer(Frame frame) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (policy == OverflowPolicy.COALESCE) {
+                    if (latest.remove(frame.sensorId()) != null) {
+                        coalescedCounter.increment();
+                    } else if (latest.size() == bufferSize) {
+                        Iterator<Frame> oldest = latest.values().iterator();
+                        oldest.next();
+                        oldest.remove();
+                        dropped++;
+                        droppedCounter.increment();
+                    }
+                    latest.put(frame.sensorId(), frame);
+                } else {
+                    if (queue.size() == bufferSize) {
+                        queue.pollFirst();
+                        dropped++;
+                        droppedCounter.increment();
+                    }
+                    queue.addLast(frame);
+                }
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void offerHeartbeat() {
+            lock.lock();
+            try {
+                heartbeatDue = true;
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                ready.signal();
+            } finally {
+                lock.unlock();
+            }
+            unregister(this);
+        }
+
+        @Override
+        public void run() {
+            List<byte[]> batch = new ArrayList<>();
+            while (true) {
+                long droppedSinceLastBatch;
+                boolean heartbeat;
+                lock.lock();
+                try {
+                    while (!closed && queue.isEmpty() && latest.isEmpty() && !heartbeatDue) {
+                        ready.awaitUninterruptibly();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    queue.forEach(frame -> batch.add(frame.bytes()));
+                    latest.values().forEach(frame -> batch.add(frame.bytes()));
+                    queue.clear();
+                    latest.clear();
+                    droppedSinceLastBatch = dropped;
+                    dropped = 0;
+                    heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    if (droppedSinceLastBatch > 0) {
+                        write(("event:dropped\ndata:{\"count\":" + droppedSinceLastBatch + "}\n\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                    }
+                    for (byte[] frame : batch) {
+                        write(frame);
+                    }
+                    deliveredCounter.increment(batch.size());
+                    if (heartbeat && batch.isEmpty()) {
+                        write(HEARTBEAT_FRAME);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client disconnected or the stream already completed
+                    log.debug("Closing measurement stream: {}", e.getMessage());
+                    close();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void write(byte[] frame) throws IOException {
+            emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(frame, MediaType.TEXT_EVENT_STREAM)));
+            lastWriteNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.dto.MetricStatisticsDTO;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass accumulator for one metric stored as DECIMAL(5,2). Values are handled as hundredths so the
+ * exact distribution fits in a dense histogram over the observed range, which gives exact percentiles
+ * without keeping the individual readings.
+ */
+public class MetricAccumulator {
+
+    private static final int SCALE = 100;
+    private static final int INITIAL_HISTOGRAM_SIZE = 256;
+
+    private long count;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private double mean;
+    private double m2;
+
+    private int[] histogram;
+    private int histogramBase;
+
+    public void add(int scaledValue) {
+        count++;
+        min = Math.min(min, scaledValue);
+        max = Math.max(max, scaledValue);
+
+        // Welford's online update keeps the variance numerically stable over long series
+        double delta = scaledValue - mean;
+        mean += delta / count;
+        m2 += delta * (scaledValue - mean);
+
+        record(scaledValue);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public MetricStatisticsDTO toStatistics() {
+        if (count == 0) {
+            return new MetricStatisticsDTO();
+        }
+        double stddev = count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+        return new MetricStatisticsDTO(
+            unscale(min),
+            unscale(max),
+            mean / SCALE,
+            stddev / SCALE,
+            unscale(percentile(50)),
+            unscale(percentile(95)),
+            unscale(percentile(99))
+        );
+    }
+
+    // Nearest-rank percentile over the histogram
+    int percentile(double percent) {
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return histogramBase + i;
+            }
+        }
+        return max;
+    }
+
+    private void record(int scaledValue) {
+        if (histogram == null) {
+            histogram = new int[INITIAL_HISTOGRAM_SIZE];
+            histogramBase = scaledValue - INITIAL_HISTOGRAM_SIZE / 2;
+        }
+
+        int index = scaledValue - histogramBase;
+        if (index < 0) {
+            int grow = Math.max(-index, histogram.length);
+            int[] grown = new int[histogram.length + grow];
+            System.arraycopy(histogram, 0, grown, grow, histogram.length);
+            histogram = grown;
+            histogramBase -= grow;
+            index = scaledValue - histogramBase;
+        } else if (index >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.max(index + 1, histogram.length * 2));
+        }
+        histogram[index]++;
+    }
+
+    private static double unscale(int scaledValue) {
+        return scaledValue / (double) SCALE;
+    }
+}
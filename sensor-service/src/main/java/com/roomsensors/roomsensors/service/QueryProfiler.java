@@ -0,0 +1,286 @@
+package com.roomsensors.roomsensors.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects execution time and row counts of every JDBC statement while profiling is enabled, fed by
+ * {@link com.roomsensors.roomsensors.config.ProfilingDataSource}. Keeps per-statement totals, samples of
+ * statements slower than the slow-query threshold, and samples of statements repeated within one request
+ * (N+1 queries, e.g. a lazy association loaded once per row). Switched on and off at runtime through the
+ * {@code queries} actuator endpoint; when off, connections are not wrapped at all.
+ */
+@Component
+public class QueryProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    private static final int MAX_STATEMENTS = 1000;
+    private static final int MAX_SAMPLES = 100;
+    private static final String OTHER_STATEMENTS = "(other statements)";
+    private static final List<String> TYPES = List.of("select", "insert", "update", "delete", "other");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jdbc.profiling.enabled:false}")
+    private volatile boolean enabled;
+
+    @Value("${jdbc.profiling.slow-threshold:100ms}")
+    private volatile Duration slowThreshold;
+
+    // The same statement executed this many times in one request is reported as an N+1 query
+    @Value("${jdbc.profiling.repeated-threshold:10}")
+    private volatile int repeatedThreshold;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final Deque<RepeatedQuery> repeatedQueries = new ArrayDeque<>();
+    private final ThreadLocal<RequestScope> requestScope = new ThreadLocal<>();
+    private final Map<String, Timer> statementTimers = new HashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new HashMap<>();
+    private Timer connectionAcquireTimer;
+    private Counter slowCounter;
+    private Counter repeatedCounter;
+
+    @PostConstruct
+    public void init() {
+        for (String type : TYPES) {
+            statementTimers.put(type, Timer.builder("jdbc.statements")
+                .description("Execution time of JDBC statements while query profiling is enabled")
+                .tag("type", type)
+                .register(meterRegistry));
+            rowSummaries.put(type, DistributionSummary.builder("jdbc.statements.rows")
+                .description("Rows returned or changed by JDBC statements while query profiling is enabled")
+                .baseUnit("rows")
+                .tag("type", type)
+                .register(meterRegistry));
+        }
+        connectionAcquireTimer = Timer.builder("jdbc.connections.acquire")
+            .description("Time spent waiting for a pooled connection while query profiling is enabled")
+            .register(meterRegistry);
+        slowCounter = Counter.builder("jdbc.statements.slow")
+            .description("Statements slower than jdbc.profiling.slow-threshold")
+            .register(meterRegistry);
+        repeatedCounter = Counter.builder("jdbc.statements.repeated")
+            .description("Statements executed jdbc.profiling.repeated-threshold or more times in one request")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            log.info("Query profiling {}", enabled ? "enabled" : "disabled");
+        }
+        this.enabled = enabled;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public int getRepeatedThreshold() {
+        return repeatedThreshold;
+    }
+
+    public void setRepeatedThreshold(int repeatedThreshold) {
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    public void connectionAcquired(long nanos) {
+        connectionAcquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one execution of {@code sql}. {@code rows} is the number of rows read from its result set, or
+     * the update count of a write.
+     */
+    public void executed(String sql, long nanos, long rows) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            stats = statements.size() < MAX_STATEMENTS
+                ? statements.computeIfAbsent(sql, StatementStats::new)
+                : statements.computeIfAbsent(OTHER_STATEMENTS, StatementStats::new);
+        }
+        stats.record(nanos, rows);
+        statementTimers.get(stats.type).record(nanos, TimeUnit.NANOSECONDS);
+        rowSummaries.get(stats.type).record(rows);
+
+        RequestScope scope = requestScope.get();
+        if (scope != null) {
+            scope.executions.merge(sql, 1, Integer::sum);
+        }
+        if (nanos >= slowThreshold.toNanos()) {
+            slowCounter.increment();
+            SlowQuery sample = new SlowQuery(Instant.now(), scope != null ? scope.request : null,
+                Thread.currentThread().getName(), sql, nanos / 1_000_000.0, rows);
+            add(slowQueries, sample);
+            log.warn("Slow query ({} ms, {} rows){}: {}", Math.round(sample.millis()), rows,
+                scope != null ? " in " + scope.request : "", sql);
+        }
+    }
+
+    /**
+     * Starts counting statements for N+1 detection on the current thread, until {@link #endRequest()}.
+     */
+    public void beginRequest(String request) {
+        requestScope.set(new RequestScope(request));
+    }
+
+    public void endRequest() {
+        RequestScope scope = requestScope.get();
+        requestScope.remove();
+        if (scope == null) {
+            return;
+        }
+        int threshold = repeatedThreshold;
+        scope.executions.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeatedCounter.increment();
+                add(repeatedQueries, new RepeatedQuery(Instant.now(), scope.request, sql, count));
+                log.warn("Statement executed {} times in {}: {}", count, scope.request, sql);
+            }
+        });
+    }
+
+    public List<StatementSummary> getStatements(int limit) {
+        return statements.values().stream()
+            .map(StatementStats::summary)
+            .sorted(Comparator.comparingDouble(StatementSummary::totalMillis).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        return snapshot(slowQueries);
+    }
+
+    public List<RepeatedQuery> getRepeatedQueries() {
+        return snapshot(repeatedQueries);
+    }
+
+    public ConnectionAcquireSummary getConnectionAcquire() {
+        return new ConnectionAcquireSummary(connectionAcquireTimer.count(),
+            connectionAcquireTimer.mean(TimeUnit.MILLISECONDS), connectionAcquireTimer.max(TimeUnit.MILLISECONDS));
+    }
+
+    public void reset() {
+        statements.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+        synchronized (repeatedQueries) {
+            repeatedQueries.clear();
+        }
+    }
+
+    private static <T> void add(Deque<T> samples, T sample) {
+        synchronized (samples) {
+            if (samples.size() == MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+            samples.addLast(sample);
+        }
+    }
+
+    private static <T> List<T> snapshot(Deque<T> samples) {
+        synchronized (samples) {
+            List<T> newestFirst = new ArrayList<>(samples);
+            return newestFirst.reversed();
+        }
+    }
+
+    static String typeOf(String sql) {
+        String statement = sql.stripLeading();
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        String keyword = statement.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "with" -> "select";
+            case "insert", "update", "delete" -> keyword;
+            case "merge" -> "insert";
+            default -> "other";
+        };
+    }
+
+    public record StatementSummary(String sql, String type, long executions, double totalMillis,
+                                   double meanMillis, double maxMillis, long rows) {
+    }
+
+    public record SlowQuery(Instant timestamp, String request, String thread, String sql, double millis, long rows) {
+    }
+
+    public record RepeatedQuery(Instant timestamp, String request, String sql, int executions) {
+    }
+
+    public record ConnectionAcquireSummary(long count, double meanMillis, double maxMillis) {
+    }
+
+    private record RequestScope(String request, Map<String, Integer> executions) {
+
+        RequestScope(String request) {
+            this(request, new HashMap<>());
+        }
+    }
+
+    private static final class StatementStats {
+
+        private final String sql;
+        private final String type;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+            this.type = typeOf(sql);
+        }
+
+        void record(long nanos, long rowCount) {
+            executions.increment();
+            totalNanos.add(nanos);
+            rows.add(rowCount);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        StatementSummary summary() {
+            long count = executions.sum();
+            double total = totalNanos.sum() / 1_000_000.0;
+            return new StatementSummary(sql, type, count, total, count == 0 ? 0 : total / count,
+                maxNanos.get() / 1_000_000.0, rows.sum());
+        }
+    }
+}
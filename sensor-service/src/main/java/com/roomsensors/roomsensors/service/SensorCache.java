@@ -0,0 +1,65 @@
+package com.roomsensors.roomsensors.service;
+
+import com.roomsensors.roomsensors.dto.SensorDTO;
+import com.roomsensors.roomsensors.event.SensorChangedEvent;
+import com.roomsensors.roomsensors.model.Sensor;
+import com.roomsensors.roomsensors.repository.SensorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+/**
+ * Sensor metadata lookups served from the bounded "sensors" cache (see {@code spring.cache.caffeine.spec}).
+ * Deliberately not transactional so a hit costs no connection checkout. Entries are evicted after the
+ * transaction that changed the sensor commits, on this node and, through {@link SensorCacheBroadcaster},
+ * on the other instances. Cached DTOs are shared and must not be modified.
+ */
+@Component
+public class SensorCache {
+    
+    public static final String SENSORS = "sensors";
+    
+    @Autowired
+    private SensorRepository sensorRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private SensorCacheBroadcaster broadcaster;
+    
+    // Unknown ids are not cached, so a sensor created afterwards is found immediately
+    @Cacheable(cacheNames = SENSORS, key = "#id", unless = "#result == null")
+    public Optional<SensorDTO> find(Long id) {
+        return sensorRepository.findById(id).map(SensorCache::toDTO);
+    }
+    
+    public void evictLocal(Long id) {
+        Cache cache = cacheManager.getCache(SENSORS);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSensorChanged(SensorChangedEvent event) {
+        evictLocal(event.getSensorId());
+        broadcaster.broadcastEviction(event.getSensorId());
+    }
+    
+    static SensorDTO toDTO(Sensor sensor) {
+        SensorDTO dto = new SensorDTO();
+        dto.setId(sensor.getId());
+        dto.setName(sensor.getName());
+        dto.setLocation(sensor.getLocation());
+        dto.setActive(sensor.getActive());
+        dto.setType(sensor.getType());
+        return dto;
+    }
+}
@@ -0,0 +1,13 @@
+package com.roomsensors.roomsensors.service;
+
+/**
+ * Propagates sensor cache evictions to the other instances of this service. Selected with
+ * {@code sensors.cache.broadcast}: {@code local} (single instance, the default) or {@code discovery}.
+ */
+public interface SensorCacheBroadcaster {
+    
+    /**
+     * Called after the change has committed. Must not block the caller on remote instances.
+     */
+    void broadcastEviction(Long sensorId);
+}
@@ -1,10 +1,15 @@
 package com.roomsensors.roomsensors.service;
 
 import com.roomsensors.roomsensors.dto.SensorDTO;
+import com.roomsensors.roomsensors.event.SensorChangedEvent;
 import com.roomsensors.roomsensors.model.Sensor;
 import com.roomsensors.roomsensors.model.SensorType;
+import com.roomsensors.roomsensors.repository.MeasurementColdStore;
+import com.roomsensors.roomsensors.repository.MeasurementCompactionRepository;
+import com.roomsensors.roomsensors.repository.MeasurementRollupRepository;
 import com.roomsensors.roomsensors.repository.SensorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +23,21 @@ public class SensorService {
     @Autowired
     private SensorRepository sensorRepository;
     
+    @Autowired
+    private MeasurementRollupRepository measurementRollupRepository;
+    
+    @Autowired
+    private MeasurementCompactionRepository measurementCompactionRepository;
+    
+    @Autowired
+    private MeasurementColdStore measurementColdStore;
+    
+    @Autowired
+    private SensorCache sensorCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<SensorDTO> getAllSensors() {
         return sensorRepository.findAll().stream()
             .map(this::convertToDTO)
@@ -25,9 +45,8 @@ public class SensorService {
     }
     
     public SensorDTO getSensorById(Long id) {
-        Sensor sensor = sensorRepository.findById(id)
+        return sensorCache.find(id)
             .orElseThrow(() -> new RuntimeException("Sensor not found with id: " + id));
-        return convertToDTO(sensor);
     }
     
     public SensorDTO createSensor(SensorDTO sensorDTO) {
@@ -46,6 +65,7 @@ public class SensorService {
         sensor.setType(sensorDTO.getType());
         
         Sensor updatedSensor = sensorRepository.save(sensor);
+        eventPublisher.publishEvent(new SensorChangedEvent(id, false));
         return convertToDTO(updatedSensor);
     }
     
@@ -53,7 +73,11 @@ public class SensorService {
         if (!sensorRepository.existsById(id)) {
             throw new RuntimeException("Sensor not found with id: " + id);
         }
+        measurementRollupRepository.deleteBySensorId(id);
+        measurementCompactionRepository.deleteBySensorId(id);
+        measurementColdStore.deleteBySensorId(id);
         sensorRepository.deleteById(id);
+        eventPublisher.publishEvent(new SensorChangedEvent(id, true));
     }
     
     private SensorDTO convertToDTO(Sensor sensor) {
@@ -0,0 +1,32 @@
+-- Schema previously created by hibernate.ddl-auto. Existing databases are baselined at this version.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT ck_users_role CHECK (role IN ('READ_ONLY', 'READ_WRITE'))
+);
+
+CREATE TABLE sensors (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    location VARCHAR(255) NOT NULL,
+    active BOOLEAN NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_sensors PRIMARY KEY (id),
+    CONSTRAINT ck_sensors_type CHECK (type IN ('OUTDOOR', 'INDOOR', 'WATER'))
+);
+
+CREATE TABLE measurements (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    sensor_id BIGINT NOT NULL,
+    temperature NUMERIC(5, 2) NOT NULL,
+    humidity NUMERIC(5, 2) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_measurements PRIMARY KEY (id),
+    CONSTRAINT fk_measurements_sensor FOREIGN KEY (sensor_id) REFERENCES sensors (id)
+);
@@ -0,0 +1,23 @@
+-- Pooled id sequences (allocationSize = 50) and the rollup table. IF NOT EXISTS because databases
+-- baselined from a ddl-auto schema may already contain them.
+
+CREATE SEQUENCE IF NOT EXISTS measurements_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS measurement_rollups_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS measurement_rollups (
+    id BIGINT NOT NULL,
+    sensor_id BIGINT NOT NULL,
+    resolution VARCHAR(16) NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    sample_count BIGINT NOT NULL,
+    temperature_sum NUMERIC(19, 2) NOT NULL,
+    temperature_min NUMERIC(5, 2),
+    temperature_max NUMERIC(5, 2),
+    humidity_sum NUMERIC(19, 2) NOT NULL,
+    humidity_min NUMERIC(5, 2),
+    humidity_max NUMERIC(5, 2),
+    CONSTRAINT pk_measurement_rollups PRIMARY KEY (id),
+    CONSTRAINT uk_measurement_rollups_bucket UNIQUE (sensor_id, resolution, bucket_start),
+    CONSTRAINT ck_measurement_rollups_resolution CHECK (resolution IN ('MINUTE', 'HOUR', 'DAY'))
+);
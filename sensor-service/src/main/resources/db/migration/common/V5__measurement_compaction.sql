@@ -0,0 +1,10 @@
+-- Progress of measurement compaction per sensor. Raw measurements before compacted_until have been replaced
+-- by the sensor's rollups of the given resolution, except for the readings kept as outliers.
+
+CREATE TABLE IF NOT EXISTS measurement_compaction (
+    sensor_id BIGINT NOT NULL,
+    resolution VARCHAR(16) NOT NULL,
+    compacted_until TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_measurement_compaction PRIMARY KEY (sensor_id),
+    CONSTRAINT ck_measurement_compaction_resolution CHECK (resolution IN ('MINUTE', 'HOUR', 'DAY'))
+);
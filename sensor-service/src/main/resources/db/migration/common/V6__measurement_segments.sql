@@ -0,0 +1,19 @@
+-- Catalog of sealed measurement segments. Each row is one immutable segment file holding the measurements
+-- of a sensor in [range_start, range_end), moved out of the measurements table by the cold storage engine.
+
+CREATE SEQUENCE IF NOT EXISTS measurement_segments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS measurement_segments (
+    id BIGINT NOT NULL,
+    sensor_id BIGINT NOT NULL,
+    range_start TIMESTAMP(6) NOT NULL,
+    range_end TIMESTAMP(6) NOT NULL,
+    row_count INTEGER NOT NULL,
+    min_id BIGINT NOT NULL,
+    max_id BIGINT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    CONSTRAINT pk_measurement_segments PRIMARY KEY (id),
+    CONSTRAINT uk_measurement_segments_range UNIQUE (sensor_id, range_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_measurement_segments_ids ON measurement_segments (min_id, max_id);
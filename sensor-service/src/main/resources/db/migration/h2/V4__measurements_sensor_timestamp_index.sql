@@ -0,0 +1,5 @@
+-- Every measurement query filters on sensor_id and a timestamp range. H2 has no INCLUDE columns, and its
+-- secondary index entries already carry the primary key, so (sensor_id, timestamp) also serves the
+-- (timestamp, id) keyset ordering.
+
+CREATE INDEX IF NOT EXISTS idx_measurements_sensor_timestamp ON measurements (sensor_id, timestamp);
@@ -0,0 +1,50 @@
+-- Converts measurements into a table range-partitioned on timestamp (enabled by the "partitioned" profile).
+-- Existing rows are copied into monthly partitions; MeasurementPartitionManager then creates partitions ahead
+-- of time and drops whole partitions once they fall out of the retention window. Rows outside every
+-- partition land in measurements_default until the manager creates a partition for them.
+-- The copy rewrites the whole table under an exclusive lock: run it in a maintenance window.
+
+CREATE TABLE measurements_partitioned (
+    id BIGINT NOT NULL,
+    sensor_id BIGINT NOT NULL,
+    temperature NUMERIC(5, 2) NOT NULL,
+    humidity NUMERIC(5, 2) NOT NULL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE measurements_default PARTITION OF measurements_partitioned DEFAULT;
+
+DO $$
+DECLARE
+    month_start TIMESTAMP;
+    last_month TIMESTAMP;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(timestamp), LOCALTIMESTAMP)),
+           date_trunc('month', GREATEST(COALESCE(MAX(timestamp), LOCALTIMESTAMP), LOCALTIMESTAMP)) + INTERVAL '2 months'
+    INTO month_start, last_month
+    FROM measurements;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF measurements_partitioned FOR VALUES FROM (%L) TO (%L)',
+            'measurements_p' || to_char(month_start, 'YYYYMMDD'), month_start, month_start + INTERVAL '1 month');
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO measurements_partitioned (id, sensor_id, temperature, humidity, timestamp, created_at)
+SELECT id, sensor_id, temperature, humidity, timestamp, created_at FROM measurements;
+
+DROP TABLE measurements;
+
+ALTER TABLE measurements_partitioned RENAME TO measurements;
+
+ALTER TABLE measurements RENAME CONSTRAINT measurements_partitioned_pkey TO pk_measurements;
+
+ALTER TABLE measurements ADD CONSTRAINT fk_measurements_sensor FOREIGN KEY (sensor_id) REFERENCES sensors (id);
+
+CREATE INDEX idx_measurements_sensor_timestamp
+    ON measurements (sensor_id, timestamp, id) INCLUDE (temperature, humidity);
+
+ANALYZE measurements;
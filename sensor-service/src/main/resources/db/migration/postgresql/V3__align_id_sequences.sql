@@ -0,0 +1,6 @@
+-- Measurements written before the switch to pooled sequences used identity ids; move the sequences past them.
+-- Hibernate's pooled optimizer hands out the 50 ids below each sequence value, hence the + 51.
+
+SELECT setval('measurements_seq', (SELECT COALESCE(MAX(id), 0) + 51 FROM measurements), false);
+
+SELECT setval('measurement_rollups_seq', (SELECT COALESCE(MAX(id), 0) + 51 FROM measurement_rollups), false);
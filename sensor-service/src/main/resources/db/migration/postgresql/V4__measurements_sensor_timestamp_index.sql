@@ -0,0 +1,7 @@
+-- Every measurement query filters on sensor_id and a timestamp range. id is a key column so keyset pages
+-- ordered by (timestamp, id) come straight off the index; temperature and humidity are INCLUDEd so range
+-- aggregates, statistics and exports can run as index-only scans.
+-- CONCURRENTLY keeps ingestion running while the index builds; Flyway runs this migration outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_measurements_sensor_timestamp
+    ON measurements (sensor_id, timestamp, id) INCLUDE (temperature, humidity);
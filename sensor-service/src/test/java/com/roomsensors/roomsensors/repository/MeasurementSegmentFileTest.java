@@ -0,0 +1,206 @@
+package com.roomsensors.roomsensors.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeasurementSegmentFileTest {
+
+    private static final int BLOCK_SIZE = 4;
+    private static final long SENSOR_ID = 7;
+    private static final long START = 1_700_000_000_000_000L;
+    private static final long MINUTE = 60_000_000L;
+
+    @Test
+    void roundTripsOneRow() {
+        long[][] rows = {{42, START, 2150, 4500}};
+
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertEquals(1, file.rowCount());
+        assertEquals(SENSOR_ID, file.sensorId());
+        assertRange(file, rows, START, START);
+        assertRange(file, rows, START - MINUTE, START + MINUTE);
+    }
+
+    @Test
+    void roundTripsExactlyOneBlock() {
+        long[][] rows = evenlySpaced(BLOCK_SIZE);
+
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertRange(file, rows, START, START + (BLOCK_SIZE - 1) * MINUTE);
+    }
+
+    @Test
+    void roundTripsOneRowPastABlock() {
+        long[][] rows = evenlySpaced(BLOCK_SIZE + 1);
+
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertRange(file, rows, START, START + BLOCK_SIZE * MINUTE);
+        assertRange(file, rows, START + BLOCK_SIZE * MINUTE, START + BLOCK_SIZE * MINUTE);
+    }
+
+    @Test
+    void roundTripsIrregularAndNegativeDeltas() {
+        // Timestamps before the epoch with shrinking and growing gaps, ids with gaps, and values falling below zero
+        long[][] rows = {
+            {10, -5 * MINUTE, 2150, 9999},
+            {11, -5 * MINUTE, -2150, -9999},
+            {15, -MINUTE, 0, 0},
+            {16, -MINUTE + 1, -99_999, 99_999},
+            {40, 0, 99_999, -99_999},
+            {41, 3 * MINUTE, 1, -1},
+            {100, 3 * MINUTE + 7, -1, 1},
+            {101, 500 * MINUTE, -32_768, 32_767},
+            {102, 500 * MINUTE + 1, 1500, 4000},
+        };
+
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertRange(file, rows, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertRange(file, rows, -5 * MINUTE, -5 * MINUTE);
+        assertRange(file, rows, -MINUTE + 1, 3 * MINUTE + 7);
+    }
+
+    @Test
+    void rangesStartAndEndMidBlock() {
+        long[][] rows = evenlySpaced(5 * BLOCK_SIZE + 2);
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertRange(file, rows, START + MINUTE, START + 2 * MINUTE);
+        assertRange(file, rows, START + 2 * MINUTE, START + 13 * MINUTE);
+        assertRange(file, rows, START + 3 * MINUTE - 1, START + 17 * MINUTE + 1);
+        assertRange(file, rows, START + 6 * MINUTE, START + 25 * MINUTE);
+        assertRange(file, rows, START - 10 * MINUTE, START + 4 * MINUTE);
+    }
+
+    @Test
+    void emptyRangeHasNoRows() {
+        long[][] rows = evenlySpaced(3 * BLOCK_SIZE);
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        assertRange(file, rows, START + MINUTE + 1, START + 2 * MINUTE - 1);
+        assertRange(file, rows, START - 10 * MINUTE, START - 1);
+        assertRange(file, rows, START + 100 * MINUTE, START + 200 * MINUTE);
+        assertRange(file, rows, START + 5 * MINUTE, START + 4 * MINUTE);
+
+        MeasurementSegmentFile.Totals totals = new MeasurementSegmentFile.Totals();
+        file.aggregate(START + MINUTE + 1, START + 2 * MINUTE - 1, totals);
+        assertEquals(0L, totals.getSampleCount());
+        assertNull(totals.getTemperatureMin());
+        assertNull(totals.getHumidityMax());
+    }
+
+    @Test
+    void findsRowsByIdAcrossBlocks() {
+        long[][] rows = evenlySpaced(2 * BLOCK_SIZE + 1);
+        MeasurementSegmentFile file = roundTrip(rows);
+
+        for (long[] row : rows) {
+            MeasurementColdStore.ColdMeasurement found = file.find(row[0]).orElseThrow();
+            assertEquals(row[0], found.id());
+            assertEquals(SENSOR_ID, found.sensorId());
+            assertEquals(row[1], found.epochMicros());
+            assertEquals(row[2], found.temperature());
+            assertEquals(row[3], found.humidity());
+        }
+        assertFalse(file.find(0).isPresent());
+        assertFalse(file.find(rows[rows.length - 1][0] + 1).isPresent());
+    }
+
+    @Test
+    void rejectsTruncatedBuffers() {
+        byte[] bytes = MeasurementSegmentFile.encode(SENSOR_ID, columns(evenlySpaced(BLOCK_SIZE + 1)), BLOCK_SIZE);
+        int indexEnd = MeasurementSegmentFile.HEADER_SIZE + 2 * MeasurementSegmentFile.INDEX_ENTRY_SIZE;
+
+        for (int length : new int[] {0, 10, MeasurementSegmentFile.HEADER_SIZE, indexEnd - 1, indexEnd,
+                indexEnd + 3, bytes.length - 1}) {
+            ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+            assertThrows(RuntimeException.class, () -> MeasurementSegmentFile.read(truncated),
+                "read accepted " + length + " of " + bytes.length + " bytes");
+        }
+        MeasurementSegmentFile.read(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    void rejectsOtherFormats() {
+        byte[] bytes = MeasurementSegmentFile.encode(SENSOR_ID, columns(evenlySpaced(1)), BLOCK_SIZE);
+        bytes[3] = 2;
+
+        assertThrows(RuntimeException.class, () -> MeasurementSegmentFile.read(ByteBuffer.wrap(bytes)));
+    }
+
+    private static long[][] evenlySpaced(int count) {
+        long[][] rows = new long[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new long[] {1000 + i, START + i * MINUTE, 2000 + (i % 3) * 25 - i, 4000 - (i % 2) * 150};
+        }
+        return rows;
+    }
+
+    private static MeasurementColumns columns(long[][] rows) {
+        MeasurementColumns columns = new MeasurementColumns();
+        for (long[] row : rows) {
+            columns.row(row[0], row[1], (int) row[2], (int) row[3]);
+        }
+        return columns;
+    }
+
+    private static MeasurementSegmentFile roundTrip(long[][] rows) {
+        byte[] bytes = MeasurementSegmentFile.encode(SENSOR_ID, columns(rows), BLOCK_SIZE);
+        MeasurementSegmentFile file = MeasurementSegmentFile.read(ByteBuffer.wrap(bytes));
+        assertEquals(rows.length, file.rowCount());
+        return file;
+    }
+
+    // Checks cursor and aggregate against the rows of [from, to] picked out directly
+    private static void assertRange(MeasurementSegmentFile file, long[][] rows, long from, long to) {
+        List<long[]> expected = new ArrayList<>();
+        for (long[] row : rows) {
+            if (row[1] >= from && row[1] <= to) {
+                expected.add(row);
+            }
+        }
+
+        MeasurementColdStore.RowCursor cursor = file.cursor(from, to);
+        for (long[] row : expected) {
+            assertTrue(cursor.next(), "cursor ended before row " + row[0]);
+            assertEquals(row[0], cursor.id());
+            assertEquals(row[1], cursor.epochMicros());
+            assertEquals(row[2], cursor.temperature());
+            assertEquals(row[3], cursor.humidity());
+        }
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+
+        MeasurementSegmentFile.Totals totals = new MeasurementSegmentFile.Totals();
+        file.aggregate(from, to, totals);
+        assertEquals(expected.size(), totals.getSampleCount());
+        assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[2]).sum(), 2),
+            totals.getTemperatureSum());
+        assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[3]).sum(), 2),
+            totals.getHumiditySum());
+        if (!expected.isEmpty()) {
+            assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[2]).min().orElseThrow(), 2),
+                totals.getTemperatureMin());
+            assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[2]).max().orElseThrow(), 2),
+                totals.getTemperatureMax());
+            assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[3]).min().orElseThrow(), 2),
+                totals.getHumidityMin());
+            assertEquals(BigDecimal.valueOf(expected.stream().mapToLong(row -> row[3]).max().orElseThrow(), 2),
+                totals.getHumidityMax());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.roomsensors.roomsensors.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MeasurementFrameValidationTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void acceptsValuesAtBothBounds() {
+        MeasurementFrame frame = roundTrip(new MeasurementFrame(
+            new long[] {1, 1, 1},
+            new long[] {NOW, 253_402_300_799_999L, -253_402_300_799_999L},
+            new int[] {-99_999, 99_999, 0},
+            new int[] {99_999, -99_999, 0}));
+
+        for (int i = 0; i < frame.size(); i++) {
+            assertNull(MeasurementService.validateRange(frame, i));
+        }
+    }
+
+    @Test
+    void rejectsMinValueTimestamp() {
+        MeasurementFrame frame = roundTrip(frame(Long.MIN_VALUE, 2150, 4500));
+
+        assertEquals("Timestamp is out of range", MeasurementService.validateRange(frame, 0));
+    }
+
+    @Test
+    void rejectsMinValueTemperature() {
+        MeasurementFrame frame = roundTrip(frame(NOW, Integer.MIN_VALUE, 4500));
+
+        assertEquals("Temperature is out of range", MeasurementService.validateRange(frame, 0));
+    }
+
+    @Test
+    void rejectsMinValueHumidity() {
+        MeasurementFrame frame = roundTrip(frame(NOW, 2150, Integer.MIN_VALUE));
+
+        assertEquals("Humidity is out of range", MeasurementService.validateRange(frame, 0));
+    }
+
+    @Test
+    void rejectsMaxValues() {
+        assertEquals("Timestamp is out of range",
+            MeasurementService.validateRange(frame(Long.MAX_VALUE, 2150, 4500), 0));
+        assertEquals("Temperature is out of range",
+            MeasurementService.validateRange(frame(NOW, 100_000, 4500), 0));
+        assertEquals("Humidity is out of range",
+            MeasurementService.validateRange(frame(NOW, 2150, Integer.MAX_VALUE), 0));
+    }
+
+    @Test
+    void streamDecodeMatchesArrayDecode() throws Exception {
+        MeasurementFrame frame = frame(Long.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+        MeasurementFrame decoded = MeasurementFrame.decode(new ByteArrayInputStream(frame.encode()), 10);
+
+        assertEquals(Long.MIN_VALUE, decoded.epochMillis(0));
+        assertEquals(Integer.MIN_VALUE, decoded.temperature(0));
+        assertEquals(Integer.MIN_VALUE, decoded.humidity(0));
+    }
+
+    private static MeasurementFrame frame(long epochMillis, int temperature, int humidity) {
+        return new MeasurementFrame(new long[] {1}, new long[] {epochMillis}, new int[] {temperature},
+            new int[] {humidity});
+    }
+
+    private static MeasurementFrame roundTrip(MeasurementFrame frame) {
+        MeasurementFrame decoded = MeasurementFrame.decode(frame.encode(), 10);
+        assertEquals(frame.size(), decoded.size());
+        for (int i = 0; i < frame.size(); i++) {
+            assertEquals(frame.sensorId(i), decoded.sensorId(i));
+            assertEquals(frame.epochMillis(i), decoded.epochMillis(i));
+            assertEquals(frame.temperature(i), decoded.temperature(i));
+            assertEquals(frame.humidity(i), decoded.humidity(i));
+        }
+        return decoded;
+    }
+}